@@ -0,0 +1,54 @@
+package model;
+
+import model.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+public class BulkResult<T extends Task> {
+    private final List<T> accepted;
+    private final Map<Integer, RuntimeException> failures;
+
+    public BulkResult(List<T> accepted, Map<Integer, RuntimeException> failures) {
+        this.accepted = Collections.unmodifiableList(accepted);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public static <T extends Task> BulkResult<T> each(Collection<? extends T> items, Consumer<T> action) {
+        List<T> accepted = new ArrayList<>();
+        Map<Integer, RuntimeException> failures = new TreeMap<>();
+        int position = 0;
+        for (T item : items) {
+            try {
+                action.accept(item);
+                accepted.add(item);
+            } catch (RuntimeException exception) {
+                failures.put(position, exception);
+            }
+            position++;
+        }
+        return new BulkResult<>(accepted, failures);
+    }
+
+    public List<T> getAccepted() {
+        return accepted;
+    }
+
+    public Map<Integer, RuntimeException> getFailures() {
+        return failures;
+    }
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "Принято: " + accepted.size() + ", ошибок: " + failures.size() + " " + failures;
+    }
+}
@@ -0,0 +1,30 @@
+package model.enums;
+
+/**
+ * Когда запись считается сохранённой. Гарантии зависят от {@link StorageMode}:
+ * <ul>
+ *     <li>JOURNAL - все три уровня работают как описано ниже;</li>
+ *     <li>SNAPSHOT и SEGMENTED - файл пишется целиком до возврата из операции, поэтому при падении процесса
+ *     ничего не теряется. ASYNC не вызывает fsync вовсе, и при отключении питания теряется всё, что ОС ещё
+ *     не сбросила на диск. BATCHED здесь не группирует записи и равен SYNC;</li>
+ *     <li>WRITE_BEHIND - снимок пишет фоновый поток раз в интервал, поэтому при падении процесса теряется
+ *     до одного интервала изменений при любом уровне. Уровень влияет только на fsync самого снимка:
+ *     ASYNC его не делает, BATCHED и SYNC делают. Подтверждены лишь изменения до вызова flush() или close().</li>
+ * </ul>
+ */
+public enum Durability {
+    /**
+     * Запись отдаётся ОС сразу, в журнале fsync выполняется фоном раз в интервал.
+     * При падении процесса журнал ничего не теряет, при отключении питания - до одного интервала.
+     */
+    ASYNC,
+    /**
+     * Групповая фиксация журнала: вызов ждёт общего fsync, который делается раз в интервал или по набору записей.
+     * Подтверждённые записи не теряются, задержка - до одного интервала.
+     */
+    BATCHED,
+    /**
+     * fsync на каждую операцию. Подтверждённые записи не теряются.
+     */
+    SYNC
+}
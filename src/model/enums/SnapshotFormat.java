@@ -0,0 +1,7 @@
+package model.enums;
+
+public enum SnapshotFormat {
+    CSV,
+    BINARY,
+    COMPRESSED
+}
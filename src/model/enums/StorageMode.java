@@ -0,0 +1,15 @@
+package model.enums;
+
+public enum StorageMode {
+    SNAPSHOT,
+    JOURNAL,
+    /**
+     * Изменения только помечают доску грязной, снимок пишется фоновым потоком не чаще раза в интервал.
+     * Подтверждёнными считаются записи, после которых вызван flush() или close().
+     */
+    WRITE_BEHIND,
+    /**
+     * Записи лежат в сегментах по диапазонам id, при изменении переписываются только затронутые сегменты.
+     */
+    SEGMENTED
+}
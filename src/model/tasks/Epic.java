@@ -2,13 +2,23 @@ package model.tasks;
 
 import model.enums.Status;
 import model.enums.Type;
+import util.IntHashSet;
+import util.IntObjectMap;
+import util.IntSet;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
 
 public class Epic extends Task {
-    private ArrayList<Integer> subTaskEpicsId = new ArrayList<>();
+    private static final Status[] STATUSES = Status.values();
+    private IntSet subTaskEpicsId = new IntHashSet();
     private LocalDateTime endTime;
+    private transient SubTaskRollup rollup;
 
     public Epic(int id, String name, Status status) {
         super(id, name, status);
@@ -32,12 +42,199 @@ public class Epic extends Task {
         this.endTime = endTime;
     }
 
-    public void setSubTaskEpicsId(ArrayList<Integer> subTaskEpicsId) {
-        this.subTaskEpicsId = subTaskEpicsId;
+    public void setSubTaskEpicsId(Collection<Integer> subTaskEpicsId) {
+        IntHashSet ids = new IntHashSet();
+        subTaskEpicsId.forEach(ids::add);
+        this.subTaskEpicsId = ids;
     }
 
-    public ArrayList<Integer> getSubTaskEpicsId() {
-        return this.subTaskEpicsId;
+    public List<Integer> getSubTaskEpicsId() {
+        int[] sorted = getSubTaskIds().toArray();
+        Arrays.sort(sorted);
+        List<Integer> ids = new ArrayList<>(sorted.length);
+        for (int id : sorted) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    public IntSet getSubTaskIds() {
+        if (subTaskEpicsId == null) {
+            subTaskEpicsId = new IntHashSet();
+        }
+        return subTaskEpicsId;
+    }
+
+    /**
+     * Заменяет сводку по подзадачам, например неизменяемой, которую копия эпика делит с оригиналом.
+     */
+    public void setRollup(SubTaskRollup rollup) {
+        this.rollup = rollup;
+        this.subTaskEpicsId = rollup.ids();
+        refreshTimeline();
+    }
+
+    public void inheritSubTasks(Epic previous) {
+        this.subTaskEpicsId = previous.getSubTaskIds();
+        this.rollup = previous.rollup;
+        refreshTimeline();
+    }
+
+    @Override
+    public Epic copy() {
+        Epic copy = new Epic(getId(), getName(), getStatus());
+        copy.setDescription(getDescription());
+        copy.setStartTime(getStartTime());
+        if (getDuration() != null) {
+            copy.setDuration(getDuration());
+        }
+        copy.endTime = endTime;
+        if (rollup != null) {
+            copy.rollup = rollup.copy();
+            copy.subTaskEpicsId = copy.rollup.ids();
+        } else {
+            IntHashSet ids = new IntHashSet();
+            getSubTaskIds().forEach(ids::add);
+            copy.subTaskEpicsId = ids;
+        }
+        return copy;
+    }
+
+    public void trackSubTask(SubTask subTask) {
+        boolean timed = subTask.getStartTime() != null && subTask.getDuration() != null;
+        rollup = rollup().track(subTask.getId(), subTask.getStatus(), timed ? subTask.getStartTime() : null,
+                timed ? subTask.getEndTime() : null);
+        subTaskEpicsId = rollup.ids();
+        refreshTimeline();
+    }
+
+    public void untrackSubTask(int subTaskId) {
+        rollup = rollup().untrack(subTaskId);
+        subTaskEpicsId = rollup.ids();
+        refreshTimeline();
+    }
+
+    public void clearTrackedSubTasks() {
+        rollup = rollup().cleared();
+        subTaskEpicsId = rollup.ids();
+    }
+
+    public int getSubTaskCount(Status status) {
+        return rollup().count(status);
+    }
+
+    public Status rollupStatus() {
+        SubTaskRollup rollup = rollup();
+        int total = rollup.ids().size();
+        if (total == rollup.count(Status.NEW)) {
+            return Status.NEW;
+        }
+        return total == rollup.count(Status.DONE) ? Status.DONE : Status.IN_PROGRESS;
+    }
+
+    public void refreshTimeline() {
+        SubTaskRollup rollup = rollup();
+        if (rollup.start() == null) {
+            clearTime();
+            endTime = null;
+            return;
+        }
+        setStartTime(rollup.start());
+        setEndTime(rollup.end());
+        setDuration(Duration.between(getStartTime(), getEndTime()));
+    }
+
+    private SubTaskRollup rollup() {
+        if (rollup == null) {
+            rollup = new Rollup();
+        }
+        return rollup;
+    }
+
+    private record Tracked(Status status, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private static final class Rollup implements SubTaskRollup {
+        private final IntHashSet ids = new IntHashSet();
+        private final IntObjectMap<Tracked> tracked = new IntObjectMap<>();
+        private final int[] counts = new int[STATUSES.length];
+        private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+        private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+
+        @Override
+        public IntSet ids() {
+            return ids;
+        }
+
+        @Override
+        public int count(Status status) {
+            return counts[status.ordinal()];
+        }
+
+        @Override
+        public LocalDateTime start() {
+            return starts.isEmpty() ? null : starts.firstKey();
+        }
+
+        @Override
+        public LocalDateTime end() {
+            return ends.isEmpty() ? null : ends.lastKey();
+        }
+
+        @Override
+        public SubTaskRollup track(int subTaskId, Status status, LocalDateTime start, LocalDateTime end) {
+            Tracked current = new Tracked(status, start, end);
+            ids.add(subTaskId);
+            forget(tracked.put(subTaskId, current));
+            counts[status.ordinal()]++;
+            if (end != null) {
+                add(starts, start);
+                add(ends, end);
+            }
+            return this;
+        }
+
+        @Override
+        public SubTaskRollup untrack(int subTaskId) {
+            ids.remove(subTaskId);
+            forget(tracked.remove(subTaskId));
+            return this;
+        }
+
+        @Override
+        public SubTaskRollup cleared() {
+            return new Rollup();
+        }
+
+        @Override
+        public SubTaskRollup copy() {
+            Rollup copy = new Rollup();
+            ids.forEach(copy.ids::add);
+            copy.tracked.putAll(tracked);
+            System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+            copy.starts.putAll(starts);
+            copy.ends.putAll(ends);
+            return copy;
+        }
+
+        private void forget(Tracked previous) {
+            if (previous == null) {
+                return;
+            }
+            counts[previous.status().ordinal()]--;
+            if (previous.end() != null) {
+                remove(starts, previous.start());
+                remove(ends, previous.end());
+            }
+        }
+
+        private static void add(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+            times.merge(time, 1, Integer::sum);
+        }
+
+        private static void remove(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+            times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+        }
     }
 
     @Override
@@ -51,6 +51,11 @@ public class SubTask extends Task {
         return Type.SUBTASK;
     }
 
+    @Override
+    public SubTask copy() {
+        return new SubTask(getId(), getName(), getStatus(), getDescription(), idEpic, getStartTime(), getDuration());
+    }
+
     @Override
     public String toString() {
         return "Подзадача: " + getName() + "\n" +
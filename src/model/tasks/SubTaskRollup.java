@@ -0,0 +1,35 @@
+package model.tasks;
+
+import model.enums.Status;
+import util.IntSet;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводка эпика по его подзадачам: их id, число подзадач в каждом статусе и границы времени. Изменяющие методы
+ * возвращают сводку, которую эпик хранит дальше: изменяемая реализация меняется на месте и возвращает себя,
+ * неизменяемая возвращает новую версию и оставляет прежнюю целой.
+ */
+public interface SubTaskRollup {
+    IntSet ids();
+
+    int count(Status status);
+
+    /**
+     * Самое раннее начало подзадач со временем или {@code null}, если таких нет.
+     */
+    LocalDateTime start();
+
+    LocalDateTime end();
+
+    SubTaskRollup track(int subTaskId, Status status, LocalDateTime start, LocalDateTime end);
+
+    SubTaskRollup untrack(int subTaskId);
+
+    SubTaskRollup cleared();
+
+    /**
+     * Сводка для копии эпика, которую можно менять независимо от этой.
+     */
+    SubTaskRollup copy();
+}
@@ -79,6 +79,11 @@ public class Task {
         this.duration = duration;
     }
 
+    protected void clearTime() {
+        this.startTime = null;
+        this.duration = null;
+    }
+
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -127,6 +132,10 @@ public class Task {
         this.status = status;
     }
 
+    public Task copy() {
+        return new Task(id, name, status, description, startTime, duration);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
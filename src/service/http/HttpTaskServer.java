@@ -4,14 +4,22 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpServer;
 import service.http.adapters.DurationAdapter;
+import service.http.adapters.IntSetAdapter;
 import service.http.adapters.LocalDateTimeAdapter;
 import service.http.handlers.*;
 import service.interfaces.TaskManager;
+import service.managers.CommandLoopTaskManager;
+import service.managers.ConcurrentTaskManager;
+import service.managers.FileBackedTaskManager;
+import service.managers.SnapshotTaskManager;
+import util.IntSet;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
     static final int PORT = 8080;
@@ -19,12 +27,21 @@ public class HttpTaskServer {
     private final TaskManager managersInMemory;
     private final GsonBuilder gsonBuilder = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-            .registerTypeAdapter(Duration.class, new DurationAdapter());
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(IntSet.class, new IntSetAdapter());
     private final Gson gson = gsonBuilder.create();
+    private final ExecutorService executor;
 
     public HttpTaskServer(TaskManager manager) throws IOException {
         this.httpServer = HttpServer.create(new InetSocketAddress(PORT), 0);
         this.managersInMemory = manager;
+        if (manager instanceof ConcurrentTaskManager || manager instanceof SnapshotTaskManager
+                || manager instanceof CommandLoopTaskManager) {
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            httpServer.setExecutor(executor);
+        } else {
+            executor = null;
+        }
     }
 
     public Gson getGson() {
@@ -43,5 +60,11 @@ public class HttpTaskServer {
 
     public void stop() {
         httpServer.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (managersInMemory instanceof FileBackedTaskManager fileBackedTaskManager) {
+            fileBackedTaskManager.close();
+        }
     }
 }
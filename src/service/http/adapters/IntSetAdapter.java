@@ -0,0 +1,43 @@
+package service.http.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import util.IntHashSet;
+import util.IntSet;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class IntSetAdapter extends TypeAdapter<IntSet> {
+    @Override
+    public void write(JsonWriter jsonWriter, IntSet ids) throws IOException {
+        if (ids == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        int[] sorted = ids.toArray();
+        Arrays.sort(sorted);
+        jsonWriter.beginArray();
+        for (int id : sorted) {
+            jsonWriter.value(id);
+        }
+        jsonWriter.endArray();
+    }
+
+    @Override
+    public IntSet read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return new IntHashSet();
+        }
+        IntHashSet ids = new IntHashSet();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            ids.add(jsonReader.nextInt());
+        }
+        jsonReader.endArray();
+        return ids;
+    }
+}
@@ -4,9 +4,18 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import model.enums.Endpoint;
+import model.tasks.Task;
 import service.interfaces.TaskManager;
 
 import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
@@ -25,11 +34,61 @@ public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
         String[] path = exchange.getRequestURI().getPath().split("/");
         System.out.println("Началась обработка " + exchange.getRequestMethod() + " /" + path[1] + " запроса от клиента.");
 
-        if (Objects.requireNonNull(endpoint) == Endpoint.GET) {
-            sendText(exchange, gson.toJson(manager.getPrioritizedTasks()));
-        } else {
+        if (Objects.requireNonNull(endpoint) != Endpoint.GET || path.length > 3
+                || (path.length == 3 && !path[2].equals("free"))) {
+            sendNotFound(exchange, "Неверный запрос.");
+            return;
+        }
+        try {
+            Map<String, String> parameters = parameters(exchange.getRequestURI().getRawQuery());
+            if (path.length == 3) {
+                LocalDateTime slot = freeSlot(parameters);
+                if (slot == null) {
+                    sendNotFound(exchange, "Свободное окно не найдено.");
+                } else {
+                    sendText(exchange, gson.toJson(slot));
+                }
+                return;
+            }
+            List<Task> tasks = prioritized(parameters);
+            sendText(exchange, gson.toJson(tasks));
+        } catch (IllegalArgumentException | DateTimeParseException exception) {
             sendNotFound(exchange, "Неверный запрос.");
         }
     }
-}
 
+    private Map<String, String> parameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null && !query.isEmpty()) {
+            for (String pair : query.split("&")) {
+                String[] parts = pair.split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Неверный параметр запроса: " + pair);
+                }
+                parameters.put(parts[0], URLDecoder.decode(parts[1], StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private LocalDateTime freeSlot(Map<String, String> parameters) {
+        if (!parameters.containsKey("duration")) {
+            throw new IllegalArgumentException("Не задана длительность окна.");
+        }
+        Duration duration = Duration.ofMinutes(Long.parseLong(parameters.get("duration")));
+        LocalDateTime notBefore = parameters.containsKey("notBefore")
+                ? LocalDateTime.parse(parameters.get("notBefore")) : LocalDateTime.now().withSecond(0).withNano(0);
+        LocalDateTime notAfter = parameters.containsKey("notAfter") ? LocalDateTime.parse(parameters.get("notAfter")) : null;
+        return manager.findFreeSlot(duration, notBefore, notAfter);
+    }
+
+    private List<Task> prioritized(Map<String, String> parameters) {
+        LocalDateTime from = parameters.containsKey("from") ? LocalDateTime.parse(parameters.get("from")) : null;
+        LocalDateTime to = parameters.containsKey("to") ? LocalDateTime.parse(parameters.get("to")) : null;
+        Integer limit = parameters.containsKey("limit") ? Integer.valueOf(parameters.get("limit")) : null;
+        if (from == null && to == null) {
+            return limit == null ? manager.getPrioritizedTasks() : manager.nextScheduled(null, limit);
+        }
+        return limit == null ? manager.getPrioritizedTasks(from, to) : manager.getPrioritizedTasks(from, to, limit);
+    }
+}
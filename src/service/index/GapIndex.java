@@ -0,0 +1,129 @@
+package service.index;
+
+import util.PersistentSortedMap;
+import util.PersistentSortedMap.Branch;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Неизменяемый индекс интервалов расписания поверх {@link PersistentSortedMap}. Сводка каждого узла помнит
+ * начало первого и наибольший конец интервалов своего поддерева, а также самый длинный промежуток между
+ * соседними интервалами внутри него.
+ * Поиск свободного окна пропускает поддеревья без подходящего промежутка целиком, поэтому самое раннее окно
+ * заданной длины находится за O(log n). Рассчитывает на то, что интервалы в индексе не пересекаются.
+ */
+final class GapIndex {
+    private static final GapIndex EMPTY = new GapIndex(PersistentSortedMap.summarized(GapIndex::summarize));
+    private final PersistentSortedMap<SlotKey, Boolean> slots;
+
+    private GapIndex(PersistentSortedMap<SlotKey, Boolean> slots) {
+        this.slots = slots;
+    }
+
+    static GapIndex empty() {
+        return EMPTY;
+    }
+
+    GapIndex put(SlotKey key) {
+        return slots.containsKey(key) ? this : new GapIndex(slots.put(key, Boolean.TRUE));
+    }
+
+    GapIndex remove(SlotKey key) {
+        PersistentSortedMap<SlotKey, Boolean> removed = slots.remove(key);
+        return removed == slots ? this : new GapIndex(removed);
+    }
+
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность окна должна быть неотрицательной.");
+        }
+        if (notBefore == null) {
+            throw new IllegalArgumentException("Не задано начало окна.");
+        }
+        if (notAfter != null && notAfter.isBefore(notBefore)) {
+            throw new IllegalArgumentException("Конец окна раньше его начала.");
+        }
+        SlotKey from = SlotKey.startingAt(notBefore);
+        Search search = new Search(duration, notBefore);
+        Map.Entry<SlotKey, Boolean> before = slots.lowerEntry(from);
+        if (before != null && before.getKey().end().isAfter(notBefore)) {
+            search.end = before.getKey().end();
+        }
+        LocalDateTime found = search(slots.root(), from, false, search);
+        LocalDateTime start = found != null ? found : search.end;
+        if (notAfter != null && start.plus(duration).isAfter(notAfter)) {
+            return null;
+        }
+        return start;
+    }
+
+    private static LocalDateTime search(Branch<SlotKey, Boolean> node, SlotKey from, boolean inRange,
+                                        Search search) {
+        if (node == null) {
+            return null;
+        }
+        SlotKey key = node.getKey();
+        if (inRange) {
+            Gaps gaps = (Gaps) node.summary();
+            if (search.fitsBefore(gaps.first)) {
+                return search.end;
+            }
+            if (gaps.maxGap.compareTo(search.duration) < 0) {
+                search.end = later(search.end, gaps.maxEnd);
+                return null;
+            }
+        } else if (key.compareTo(from) < 0) {
+            return search(node.right(), from, false, search);
+        }
+        LocalDateTime found = search(node.left(), from, inRange, search);
+        if (found != null) {
+            return found;
+        }
+        if (search.fitsBefore(key.start())) {
+            return search.end;
+        }
+        search.end = later(search.end, key.end());
+        return search(node.right(), from, true, search);
+    }
+
+    private static Gaps summarize(Gaps left, SlotKey key, Boolean value, Gaps right) {
+        LocalDateTime end = key.end();
+        Duration gap = Duration.ZERO;
+        if (left != null) {
+            gap = longer(left.maxGap, Duration.between(left.maxEnd, key.start()));
+            end = later(left.maxEnd, end);
+        }
+        if (right != null) {
+            gap = longer(gap, longer(right.maxGap, Duration.between(end, right.first)));
+            end = later(end, right.maxEnd);
+        }
+        return new Gaps(left != null ? left.first : key.start(), end, gap);
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static Duration longer(Duration first, Duration second) {
+        return first.compareTo(second) >= 0 ? first : second;
+    }
+
+    private record Gaps(LocalDateTime first, LocalDateTime maxEnd, Duration maxGap) {
+    }
+
+    private static final class Search {
+        private final Duration duration;
+        private LocalDateTime end;
+
+        private Search(Duration duration, LocalDateTime end) {
+            this.duration = duration;
+            this.end = end;
+        }
+
+        private boolean fitsBefore(LocalDateTime start) {
+            return !end.plus(duration).isAfter(start);
+        }
+    }
+}
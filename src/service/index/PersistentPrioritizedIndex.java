@@ -0,0 +1,125 @@
+package service.index;
+
+import model.tasks.Task;
+import util.PersistentSortedMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый вариант {@link PrioritizedIndex}: каждое изменение возвращает новый индекс, который делит
+ * с прежним всё, кроме O(log n) узлов. Прежняя версия остаётся целой, поэтому её можно читать без блокировок.
+ */
+public final class PersistentPrioritizedIndex {
+    private static final PersistentPrioritizedIndex EMPTY =
+            new PersistentPrioritizedIndex(PersistentSortedMap.empty(), PersistentSortedMap.empty(), GapIndex.empty());
+    private final PersistentSortedMap<SlotKey, Task> byTime;
+    private final PersistentSortedMap<Integer, SlotKey> keys;
+    private final GapIndex gaps;
+
+    private PersistentPrioritizedIndex(PersistentSortedMap<SlotKey, Task> byTime,
+                                       PersistentSortedMap<Integer, SlotKey> keys, GapIndex gaps) {
+        this.byTime = byTime;
+        this.keys = keys;
+        this.gaps = gaps;
+    }
+
+    public static PersistentPrioritizedIndex empty() {
+        return EMPTY;
+    }
+
+    public PersistentPrioritizedIndex put(Task task) {
+        PersistentPrioritizedIndex index = remove(task.getId());
+        if (task.getStartTime() == null) {
+            return index;
+        }
+        SlotKey key = SlotKey.of(task);
+        return new PersistentPrioritizedIndex(index.byTime.put(key, task), index.keys.put(task.getId(), key),
+                index.gaps.put(key));
+    }
+
+    public PersistentPrioritizedIndex remove(int id) {
+        SlotKey key = keys.get(id);
+        if (key == null) {
+            return this;
+        }
+        return new PersistentPrioritizedIndex(byTime.remove(key), keys.remove(id), gaps.remove(key));
+    }
+
+    public boolean contains(int id) {
+        return keys.containsKey(id);
+    }
+
+    public int size() {
+        return byTime.size();
+    }
+
+    public List<Task> values() {
+        return byTime.values();
+    }
+
+    public List<Task> range(LocalDateTime from, LocalDateTime to) {
+        return range(from, to, Integer.MAX_VALUE);
+    }
+
+    public List<Task> range(LocalDateTime from, LocalDateTime to, int limit) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец окна раньше его начала.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным.");
+        }
+        List<Task> result = new ArrayList<>();
+        if (from != null) {
+            Map.Entry<SlotKey, Task> before = byTime.lowerEntry(SlotKey.startingAt(from));
+            if (before != null && before.getKey().end().isAfter(from)) {
+                result.add(before.getValue());
+            }
+        }
+        SlotKey first = SlotKey.startingAt(from != null ? from : LocalDateTime.MIN);
+        for (Map.Entry<SlotKey, Task> entry : byTime.tailEntries(first, true)) {
+            if (result.size() == limit || (to != null && !entry.getKey().start().isBefore(to))) {
+                break;
+            }
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+
+    public List<Task> after(LocalDateTime after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным.");
+        }
+        Iterable<Map.Entry<SlotKey, Task>> tail = after == null
+                ? byTime.tailEntries(SlotKey.startingAt(LocalDateTime.MIN), true)
+                : byTime.tailEntries(SlotKey.startingAfter(after), false);
+        List<Task> result = new ArrayList<>();
+        for (Map.Entry<SlotKey, Task> entry : tail) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return gaps.findFreeSlot(duration, notBefore, notAfter);
+    }
+
+    public boolean overlaps(Task task) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        Map.Entry<SlotKey, Task> before = byTime.lowerEntry(SlotKey.startingAt(end));
+        while (before != null && before.getKey().id() == task.getId()) {
+            before = byTime.lowerEntry(before.getKey());
+        }
+        return before != null && before.getKey().overlaps(start, end);
+    }
+}
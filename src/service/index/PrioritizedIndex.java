@@ -0,0 +1,125 @@
+package service.index;
+
+import model.tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class PrioritizedIndex {
+    private final TreeMap<SlotKey, Task> byTime = new TreeMap<>();
+    private final Map<Integer, SlotKey> keys = new HashMap<>();
+    private GapIndex gaps = GapIndex.empty();
+
+    public void put(Task task) {
+        remove(task.getId());
+        if (task.getStartTime() == null) {
+            return;
+        }
+        SlotKey key = SlotKey.of(task);
+        byTime.put(key, task);
+        keys.put(task.getId(), key);
+        gaps = gaps.put(key);
+    }
+
+    public Task remove(int id) {
+        SlotKey key = keys.remove(id);
+        if (key == null) {
+            return null;
+        }
+        gaps = gaps.remove(key);
+        return byTime.remove(key);
+    }
+
+    public Task get(int id) {
+        SlotKey key = keys.get(id);
+        return key == null ? null : byTime.get(key);
+    }
+
+    public boolean contains(int id) {
+        return keys.containsKey(id);
+    }
+
+    public int size() {
+        return byTime.size();
+    }
+
+    public void clear() {
+        byTime.clear();
+        keys.clear();
+        gaps = GapIndex.empty();
+    }
+
+    public List<Task> toList() {
+        return new ArrayList<>(byTime.values());
+    }
+
+    public Collection<Task> values() {
+        return Collections.unmodifiableCollection(byTime.values());
+    }
+
+    public List<Task> range(LocalDateTime from, LocalDateTime to) {
+        return range(from, to, Integer.MAX_VALUE);
+    }
+
+    public List<Task> range(LocalDateTime from, LocalDateTime to, int limit) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец окна раньше его начала.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным.");
+        }
+        List<Task> result = new ArrayList<>();
+        NavigableMap<SlotKey, Task> window = byTime;
+        if (from != null) {
+            Map.Entry<SlotKey, Task> before = byTime.lowerEntry(SlotKey.startingAt(from));
+            if (before != null && before.getKey().end().isAfter(from)) {
+                result.add(before.getValue());
+            }
+            window = window.tailMap(SlotKey.startingAt(from), true);
+        }
+        if (to != null) {
+            window = window.headMap(SlotKey.startingAt(to), false);
+        }
+        for (Task task : window.values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    public List<Task> after(LocalDateTime after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным.");
+        }
+        Collection<Task> tail = after == null ? byTime.values()
+                : byTime.tailMap(SlotKey.startingAfter(after), false).values();
+        List<Task> result = new ArrayList<>();
+        for (Task task : tail) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return gaps.findFreeSlot(duration, notBefore, notAfter);
+    }
+
+    public boolean overlaps(Task task) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        Map.Entry<SlotKey, Task> before = byTime.lowerEntry(SlotKey.startingAt(end));
+        while (before != null && before.getKey().id() == task.getId()) {
+            before = byTime.lowerEntry(before.getKey());
+        }
+        return before != null && before.getKey().overlaps(start, end);
+    }
+}
@@ -0,0 +1,34 @@
+package service.index;
+
+import model.tasks.Task;
+
+import java.time.LocalDateTime;
+
+record SlotKey(LocalDateTime start, LocalDateTime end, int id) implements Comparable<SlotKey> {
+
+    static SlotKey of(Task task) {
+        return new SlotKey(task.getStartTime(), task.getEndTime(), task.getId());
+    }
+
+    static SlotKey startingAt(LocalDateTime start) {
+        return new SlotKey(start, LocalDateTime.MIN, Integer.MIN_VALUE);
+    }
+
+    static SlotKey startingAfter(LocalDateTime start) {
+        return new SlotKey(start, LocalDateTime.MAX, Integer.MAX_VALUE);
+    }
+
+    boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return end.isAfter(otherStart) && otherEnd.isAfter(start);
+    }
+
+    @Override
+    public int compareTo(SlotKey other) {
+        int byStart = start.compareTo(other.start);
+        if (byStart != 0) {
+            return byStart;
+        }
+        int byEnd = end.compareTo(other.end);
+        return byEnd != 0 ? byEnd : Integer.compare(id, other.id);
+    }
+}
@@ -0,0 +1,61 @@
+package service.index;
+
+import model.enums.Status;
+import model.enums.Type;
+import model.tasks.Task;
+import util.IntHashSet;
+import util.IntObjectMap;
+
+import java.util.EnumMap;
+
+/**
+ * Вторичный индекс id задач по типу и статусу. Статус запоминается в момент индексации, поэтому снятие
+ * задачи с индекса не зависит от того, что объект задачи успели изменить снаружи.
+ */
+public class StatusIndex {
+    private final EnumMap<Type, EnumMap<Status, IntHashSet>> ids = new EnumMap<>(Type.class);
+    private final IntObjectMap<Slot> slots = new IntObjectMap<>();
+
+    public StatusIndex() {
+        for (Type type : Type.values()) {
+            EnumMap<Status, IntHashSet> byStatus = new EnumMap<>(Status.class);
+            for (Status status : Status.values()) {
+                byStatus.put(status, new IntHashSet());
+            }
+            ids.put(type, byStatus);
+        }
+    }
+
+    public void put(Task task) {
+        remove(task.getId());
+        if (task.getStatus() == null) {
+            return;
+        }
+        Slot slot = new Slot(task.getType(), task.getStatus());
+        ids.get(slot.type()).get(slot.status()).add(task.getId());
+        slots.put(task.getId(), slot);
+    }
+
+    public void remove(int id) {
+        Slot slot = slots.remove(id);
+        if (slot != null) {
+            ids.get(slot.type()).get(slot.status()).remove(id);
+        }
+    }
+
+    public void clear() {
+        slots.clear();
+        ids.values().forEach(byStatus -> byStatus.values().forEach(IntHashSet::clear));
+    }
+
+    public int[] ids(Type type, Status status) {
+        return ids.get(type).get(status).toArray();
+    }
+
+    public int count(Type type, Status status) {
+        return ids.get(type).get(status).size();
+    }
+
+    private record Slot(Type type, Status status) {
+    }
+}
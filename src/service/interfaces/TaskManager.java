@@ -1,14 +1,84 @@
 package service.interfaces;
 
+import model.BulkResult;
+import model.enums.Status;
+import model.enums.Type;
 import model.tasks.Epic;
 import model.tasks.SubTask;
 import model.tasks.Task;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskManager {
     List<Task> getPrioritizedTasks();
 
+    default List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец окна раньше его начала.");
+        }
+        List<Task> result = new ArrayList<>();
+        for (Task task : getPrioritizedTasks()) {
+            boolean startsBeforeEnd = to == null || task.getStartTime().isBefore(to);
+            boolean endsAfterStart = from == null || !task.getStartTime().isBefore(from) || task.getEndTime().isAfter(from);
+            if (startsBeforeEnd && endsAfterStart) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    default List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным.");
+        }
+        List<Task> window = getPrioritizedTasks(from, to);
+        return window.size() > limit ? new ArrayList<>(window.subList(0, limit)) : window;
+    }
+
+    default LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность окна должна быть неотрицательной.");
+        }
+        if (notBefore == null) {
+            throw new IllegalArgumentException("Не задано начало окна.");
+        }
+        if (notAfter != null && notAfter.isBefore(notBefore)) {
+            throw new IllegalArgumentException("Конец окна раньше его начала.");
+        }
+        LocalDateTime start = notBefore;
+        for (Task task : getPrioritizedTasks()) {
+            if (!start.plus(duration).isAfter(task.getStartTime())) {
+                break;
+            }
+            if (task.getEndTime().isAfter(start)) {
+                start = task.getEndTime();
+            }
+        }
+        return notAfter != null && start.plus(duration).isAfter(notAfter) ? null : start;
+    }
+
+    default List<Task> nextScheduled(LocalDateTime after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным.");
+        }
+        List<Task> result = new ArrayList<>();
+        for (Task task : getPrioritizedTasks()) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (after == null || task.getStartTime().isAfter(after)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
     List<Task> getAllTasks();
 
     List<Epic> getAllEpics();
@@ -21,6 +91,8 @@ public interface TaskManager {
 
     void deleteAllSubTasks();
 
+    Task getById(int id);
+
     Task getByIdTasks(int id);
 
     Epic getByIdEpics(int id);
@@ -33,12 +105,24 @@ public interface TaskManager {
 
     void createSubtask(SubTask subTask);
 
+    default BulkResult<Task> createTasks(Collection<? extends Task> tasks) {
+        return BulkResult.each(tasks, this::createTask);
+    }
+
+    default BulkResult<SubTask> createSubtasks(Collection<? extends SubTask> subTasks) {
+        return BulkResult.each(subTasks, this::createSubtask);
+    }
+
     void updateTask(Task task);
 
     void updateEpic(Epic epic);
 
     void updateSubTask(SubTask subTask);
 
+    default BulkResult<SubTask> updateSubTasks(Collection<? extends SubTask> subTasks) {
+        return BulkResult.each(subTasks, this::updateSubTask);
+    }
+
     void deleteTaskById(int id);
 
     void deleteEpicById(int id);
@@ -48,4 +132,31 @@ public interface TaskManager {
     List<SubTask> getSubtasksForEpic(int idEpic);
 
     List<Task> getHistory();
+
+    default List<Task> getByStatus(Status status) {
+        List<Task> result = new ArrayList<>();
+        for (Type type : Type.values()) {
+            result.addAll(getByStatus(type, status));
+        }
+        result.sort(Comparator.comparingInt(Task::getId));
+        return result;
+    }
+
+    default List<Task> getByStatus(Type type, Status status) {
+        List<? extends Task> all = switch (type) {
+            case TASK -> getAllTasks();
+            case EPIC -> getAllEpics();
+            case SUBTASK -> getAllSubTask();
+        };
+        List<Task> result = new ArrayList<>();
+        for (Task task : all) {
+            if (task.getStatus() == status) {
+                result.add(task);
+            }
+        }
+        result.sort(Comparator.comparingInt(Task::getId));
+        return result;
+    }
+
+    void inTransaction(Consumer<TaskManager> body);
 }
@@ -0,0 +1,371 @@
+package service.managers;
+
+import model.BulkResult;
+import model.enums.Status;
+import model.enums.Type;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import service.interfaces.TaskManager;
+import util.RingBuffer;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Менеджер задач с одним пишущим потоком. Каждая операция становится командой, которая кладётся в кольцевой
+ * буфер; единственный поток забирает команды пачками и применяет их к своему {@link InMemoryTaskManager}
+ * без блокировок, в порядке публикации. Результат или исключение, например
+ * {@link exception.TimeOverlapException}, отдаются через {@link CompletableFuture}. Если состояние хранится
+ * в {@link FileBackedTaskManager}, после каждой пачки выполняется один {@link FileBackedTaskManager#flush()},
+ * и результаты команд пачки отдаются только после него.
+ */
+public class CommandLoopTaskManager implements TaskManager, Closeable {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private final InMemoryTaskManager state;
+    private final RingBuffer<Command<?>> ring;
+    private final Command<?>[] batch;
+    private final AtomicInteger producers = new AtomicInteger();
+    private volatile Thread writer;
+    private int collected;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    protected CommandLoopTaskManager(InMemoryTaskManager state, int capacity) {
+        this.state = state;
+        this.ring = new RingBuffer<>(capacity);
+        this.batch = new Command<?>[capacity];
+    }
+
+    public static CommandLoopTaskManager create() {
+        return create(new InMemoryTaskManager());
+    }
+
+    public static CommandLoopTaskManager create(InMemoryTaskManager state) {
+        return create(state, DEFAULT_CAPACITY);
+    }
+
+    public static CommandLoopTaskManager create(InMemoryTaskManager state, int capacity) {
+        CommandLoopTaskManager manager = new CommandLoopTaskManager(state, capacity);
+        manager.start();
+        return manager;
+    }
+
+    /**
+     * Запускает пишущий поток. Вызывается фабриками после конструктора, чтобы поток не увидел
+     * не до конца созданный объект.
+     */
+    protected synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+        Thread thread = new Thread(this::commandLoop, "task-command-loop");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    public <T> CompletableFuture<T> submit(Function<? super TaskManager, T> action) {
+        Command<T> command = new Command<>(action);
+        if (Thread.currentThread() == writer) {
+            command.run(state);
+            command.complete();
+            return command.future;
+        }
+        producers.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Менеджер команд закрыт.");
+            }
+            ring.put(command);
+        } finally {
+            producers.decrementAndGet();
+        }
+        if (waiting) {
+            LockSupport.unpark(writer);
+        }
+        return command.future;
+    }
+
+    public CompletableFuture<Void> execute(Consumer<? super TaskManager> action) {
+        return submit(manager -> {
+            action.accept(manager);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return await(submit(TaskManager::getPrioritizedTasks));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return await(submit(manager -> manager.getPrioritizedTasks(from, to)));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return await(submit(manager -> manager.getPrioritizedTasks(from, to, limit)));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return await(submit(manager -> manager.findFreeSlot(duration, notBefore, notAfter)));
+    }
+
+    @Override
+    public List<Task> nextScheduled(LocalDateTime after, int limit) {
+        return await(submit(manager -> manager.nextScheduled(after, limit)));
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return await(submit(TaskManager::getAllTasks));
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return await(submit(TaskManager::getAllEpics));
+    }
+
+    @Override
+    public List<SubTask> getAllSubTask() {
+        return await(submit(TaskManager::getAllSubTask));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        await(execute(TaskManager::deleteAllTasks));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        await(execute(TaskManager::deleteAllEpics));
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        await(execute(TaskManager::deleteAllSubTasks));
+    }
+
+    @Override
+    public Task getById(int id) {
+        return await(submit(manager -> manager.getById(id)));
+    }
+
+    @Override
+    public Task getByIdTasks(int id) {
+        return await(submit(manager -> manager.getByIdTasks(id)));
+    }
+
+    @Override
+    public Epic getByIdEpics(int id) {
+        return await(submit(manager -> manager.getByIdEpics(id)));
+    }
+
+    @Override
+    public SubTask getByIdSubTasks(int id) {
+        return await(submit(manager -> manager.getByIdSubTasks(id)));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        await(execute(manager -> manager.createTask(task)));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        await(execute(manager -> manager.createEpic(epic)));
+    }
+
+    @Override
+    public void createSubtask(SubTask subTask) {
+        await(execute(manager -> manager.createSubtask(subTask)));
+    }
+
+    @Override
+    public BulkResult<Task> createTasks(Collection<? extends Task> tasks) {
+        return await(submit(manager -> manager.createTasks(tasks)));
+    }
+
+    @Override
+    public BulkResult<SubTask> createSubtasks(Collection<? extends SubTask> subTasks) {
+        return await(submit(manager -> manager.createSubtasks(subTasks)));
+    }
+
+    @Override
+    public BulkResult<SubTask> updateSubTasks(Collection<? extends SubTask> subTasks) {
+        return await(submit(manager -> manager.updateSubTasks(subTasks)));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        await(execute(manager -> manager.updateTask(task)));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        await(execute(manager -> manager.updateEpic(epic)));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        await(execute(manager -> manager.updateSubTask(subTask)));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        await(execute(manager -> manager.deleteTaskById(id)));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        await(execute(manager -> manager.deleteEpicById(id)));
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        await(execute(manager -> manager.deleteSubtaskById(id)));
+    }
+
+    @Override
+    public List<SubTask> getSubtasksForEpic(int idEpic) {
+        return await(submit(manager -> manager.getSubtasksForEpic(idEpic)));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return await(submit(TaskManager::getHistory));
+    }
+
+    @Override
+    public List<Task> getByStatus(Status status) {
+        return await(submit(manager -> manager.getByStatus(status)));
+    }
+
+    @Override
+    public List<Task> getByStatus(Type type, Status status) {
+        return await(submit(manager -> manager.getByStatus(type, status)));
+    }
+
+    @Override
+    public void inTransaction(Consumer<TaskManager> body) {
+        await(execute(manager -> manager.inTransaction(body)));
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread writer = this.writer;
+        if (writer == null) {
+            return;
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void commandLoop() {
+        while (true) {
+            int count = ring.drain(this::collect, batch.length);
+            if (count > 0) {
+                apply(count);
+                continue;
+            }
+            if (closed && producers.get() == 0 && ring.isEmpty()) {
+                return;
+            }
+            waiting = true;
+            if (ring.isEmpty() && !closed) {
+                LockSupport.park(this);
+            }
+            waiting = false;
+        }
+    }
+
+    private void collect(Command<?> command) {
+        batch[collected++] = command;
+    }
+
+    private void apply(int count) {
+        collected = 0;
+        for (int i = 0; i < count; i++) {
+            batch[i].run(state);
+        }
+        RuntimeException flushFailure = null;
+        if (state instanceof FileBackedTaskManager fileBacked) {
+            try {
+                fileBacked.flush();
+            } catch (RuntimeException exception) {
+                flushFailure = exception;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (flushFailure != null) {
+                batch[i].fail(flushFailure);
+            }
+            batch[i].complete();
+            batch[i] = null;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
+    }
+
+    private static final class Command<T> {
+        private final Function<? super TaskManager, T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable failure;
+
+        private Command(Function<? super TaskManager, T> action) {
+            this.action = action;
+        }
+
+        private void run(TaskManager manager) {
+            try {
+                result = action.apply(manager);
+            } catch (Throwable throwable) {
+                failure = throwable;
+            }
+        }
+
+        private void fail(Throwable throwable) {
+            if (failure == null) {
+                failure = throwable;
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package service.managers;
+
+import exception.TaskNotFoundException;
+import exception.TimeOverlapException;
+import model.enums.Type;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import service.index.PrioritizedIndex;
+import service.interfaces.HistoryManager;
+import service.interfaces.TaskManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Потокобезопасный менеджер задач. Эпик вместе со своими подзадачами и отдельная задача защищены
+ * блокировкой своей полосы, поэтому изменения разных эпиков и задач выполняются параллельно. Общими
+ * остаются только индекс временных слотов и история, у каждого из них свой монитор. Полосы всегда
+ * захватываются по возрастанию номера, индекс слотов и история - только после них. Эпики наружу отдаются
+ * копиями, снятыми под блокировкой их полосы.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    public static final int DEFAULT_STRIPES = 64;
+    private final Map<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final Map<Integer, SubTask> subTasks = new ConcurrentHashMap<>();
+    private final Map<Integer, Epic> epics = new ConcurrentHashMap<>();
+    private final Map<Integer, Task> byId = new ConcurrentHashMap<>();
+    private final AtomicInteger id = new AtomicInteger(1);
+    private final ReentrantLock[] stripes;
+    private final PrioritizedIndex prioritizedIndex = new PrioritizedIndex();
+    private final Object slotLock = new Object();
+    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    private UndoLog undoLog;
+
+    public ConcurrentTaskManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ConcurrentTaskManager(int stripes) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Число полос должно быть положительной степенью двойки.");
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        synchronized (slotLock) {
+            return exposed(prioritizedIndex.toList());
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        synchronized (slotLock) {
+            return exposed(prioritizedIndex.range(from, to));
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        synchronized (slotLock) {
+            return exposed(prioritizedIndex.range(from, to, limit));
+        }
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        synchronized (slotLock) {
+            return prioritizedIndex.findFreeSlot(duration, notBefore, notAfter);
+        }
+    }
+
+    @Override
+    public List<Task> nextScheduled(LocalDateTime after, int limit) {
+        synchronized (slotLock) {
+            return exposed(prioritizedIndex.after(after, limit));
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return exposed(new ArrayList<>(tasks.values()));
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        List<Epic> result = new ArrayList<>(epics.size());
+        for (Epic epic : exposed(new ArrayList<>(epics.values()))) {
+            result.add((Epic) detach(epic));
+        }
+        return result;
+    }
+
+    @Override
+    public List<SubTask> getAllSubTask() {
+        return exposed(new ArrayList<>(subTasks.values()));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        lockAll();
+        try {
+            for (Task task : tasks.values()) {
+                beforeChange(task.getId());
+                unschedule(task.getId());
+                byId.remove(task.getId());
+                forget(task.getId());
+            }
+            tasks.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lockAll();
+        try {
+            for (SubTask subTask : subTasks.values()) {
+                beforeChange(subTask.getId());
+                unschedule(subTask.getId());
+                byId.remove(subTask.getId());
+                forget(subTask.getId());
+            }
+            for (Epic epic : epics.values()) {
+                beforeChange(epic.getId());
+                byId.remove(epic.getId());
+                forget(epic.getId());
+            }
+            subTasks.clear();
+            epics.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        lockAll();
+        try {
+            for (SubTask subTask : subTasks.values()) {
+                beforeChange(subTask.getId());
+                unschedule(subTask.getId());
+                byId.remove(subTask.getId());
+                forget(subTask.getId());
+            }
+            subTasks.clear();
+            for (Epic epic : epics.values()) {
+                beforeChange(epic.getId());
+                epic.clearTrackedSubTasks();
+                epic.setStatus(epic.rollupStatus());
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Task getById(int id) {
+        Task task = byId.get(id);
+        beforeChange(id);
+        remember(task);
+        return detach(task);
+    }
+
+    @Override
+    public Task getByIdTasks(int id) {
+        return getById(id, Type.TASK);
+    }
+
+    @Override
+    public Epic getByIdEpics(int id) {
+        return (Epic) getById(id, Type.EPIC);
+    }
+
+    @Override
+    public SubTask getByIdSubTasks(int id) {
+        return (SubTask) getById(id, Type.SUBTASK);
+    }
+
+    private Task getById(int id, Type type) {
+        Task task = byId.get(id);
+        if (task == null || task.getType() != type) {
+            return null;
+        }
+        beforeChange(id);
+        remember(task);
+        return detach(task);
+    }
+
+    @Override
+    public void createTask(Task task) {
+        task.setId(id.getAndIncrement());
+        ReentrantLock lock = stripe(task.getId());
+        lock.lock();
+        try {
+            schedule(task, "Найдено пересечение по времени.");
+            tasks.put(task.getId(), task);
+            byId.put(task.getId(), task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        epic.setId(id.getAndIncrement());
+        ReentrantLock lock = stripe(epic.getId());
+        lock.lock();
+        try {
+            epics.put(epic.getId(), epic);
+            byId.put(epic.getId(), epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void createSubtask(SubTask subTask) {
+        subTask.setId(id.getAndIncrement());
+        ReentrantLock lock = stripe(subTask.getIdEpic());
+        lock.lock();
+        try {
+            Epic epic = epics.get(subTask.getIdEpic());
+            if (epic == null) {
+                throw new TaskNotFoundException("Эпика с ID - " + subTask.getIdEpic() + " не существует.");
+            }
+            beforeChange(epic.getId());
+            schedule(subTask, "Добавление невозможно, найдено пересечение по времени.");
+            subTasks.put(subTask.getId(), subTask);
+            byId.put(subTask.getId(), subTask);
+            epic.trackSubTask(subTask);
+            epic.setStatus(epic.rollupStatus());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        ReentrantLock lock = stripe(task.getId());
+        lock.lock();
+        try {
+            if (!tasks.containsKey(task.getId())) {
+                throw new TaskNotFoundException(" ID - " + task.getId() + ", в Задачах отсутствует");
+            }
+            beforeChange(task.getId());
+            schedule(task, "Обновление невозможно, пересечение по времени.");
+            tasks.put(task.getId(), task);
+            byId.put(task.getId(), task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        ReentrantLock lock = stripe(epic.getId());
+        lock.lock();
+        try {
+            Epic previous = epics.get(epic.getId());
+            if (previous == null) {
+                throw new TaskNotFoundException(" ID - " + epic.getId() + ", в Эпиках отсутствует.");
+            }
+            beforeChange(epic.getId());
+            epic.inheritSubTasks(previous);
+            epic.setStatus(epic.rollupStatus());
+            epics.put(epic.getId(), epic);
+            byId.put(epic.getId(), epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        while (true) {
+            SubTask previous = subTasks.get(subTask.getId());
+            if (previous == null) {
+                throw new TaskNotFoundException(" ID - " + subTask.getId() + ", в Задачах отсутствует");
+            }
+            int from = stripeIndex(previous.getIdEpic());
+            int to = stripeIndex(subTask.getIdEpic());
+            ReentrantLock first = stripes[Math.min(from, to)];
+            ReentrantLock second = stripes[Math.max(from, to)];
+            first.lock();
+            second.lock();
+            try {
+                if (subTasks.get(subTask.getId()) != previous) {
+                    continue;
+                }
+                Epic epic = epics.get(subTask.getIdEpic());
+                if (epic == null) {
+                    throw new TaskNotFoundException("Эпика с ID - " + subTask.getIdEpic() + " не существует.");
+                }
+                Epic previousEpic = epics.get(previous.getIdEpic());
+                beforeChange(subTask.getId());
+                beforeChange(previousEpic.getId());
+                beforeChange(epic.getId());
+                schedule(subTask, "Найдено пересечение по времени.");
+                subTasks.put(subTask.getId(), subTask);
+                byId.put(subTask.getId(), subTask);
+                if (previousEpic != epic) {
+                    previousEpic.untrackSubTask(subTask.getId());
+                    previousEpic.setStatus(previousEpic.rollupStatus());
+                }
+                epic.trackSubTask(subTask);
+                epic.setStatus(epic.rollupStatus());
+                return;
+            } finally {
+                second.unlock();
+                first.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        ReentrantLock lock = stripe(id);
+        lock.lock();
+        try {
+            if (!tasks.containsKey(id)) {
+                throw new TaskNotFoundException(" ID - " + id + ", в Задачах отсутствует.");
+            }
+            beforeChange(id);
+            tasks.remove(id);
+            unschedule(id);
+            byId.remove(id);
+            forget(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        ReentrantLock lock = stripe(id);
+        lock.lock();
+        try {
+            Epic epic = epics.get(id);
+            if (epic == null) {
+                throw new TaskNotFoundException(" ID - " + id + ", в Эпиках отсутствует.");
+            }
+            beforeChange(id);
+            epics.remove(id);
+            epic.getSubTaskIds().forEach(subTaskId -> {
+                beforeChange(subTaskId);
+                subTasks.remove(subTaskId);
+                unschedule(subTaskId);
+                byId.remove(subTaskId);
+            });
+            byId.remove(id);
+            forget(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        while (true) {
+            SubTask subTask = subTasks.get(id);
+            if (subTask == null) {
+                throw new TaskNotFoundException(" ID - " + id + ", в Подзадачах отсутствует.");
+            }
+            ReentrantLock lock = stripe(subTask.getIdEpic());
+            lock.lock();
+            try {
+                if (subTasks.get(id) != subTask) {
+                    continue;
+                }
+                Epic epic = epics.get(subTask.getIdEpic());
+                beforeChange(id);
+                beforeChange(epic.getId());
+                subTasks.remove(id);
+                unschedule(id);
+                byId.remove(id);
+                epic.untrackSubTask(id);
+                epic.setStatus(epic.rollupStatus());
+                forget(id);
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<SubTask> getSubtasksForEpic(int idEpic) {
+        ReentrantLock lock = stripe(idEpic);
+        lock.lock();
+        try {
+            Epic epic = epics.get(idEpic);
+            if (epic == null) {
+                throw new TaskNotFoundException("Эпика с ID - " + idEpic + " не существует.");
+            }
+            int[] ids = epic.getSubTaskIds().toArray();
+            Arrays.sort(ids);
+            List<SubTask> result = new ArrayList<>(ids.length);
+            for (int subTaskId : ids) {
+                result.add(subTasks.get(subTaskId));
+            }
+            return exposed(result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history;
+        synchronized (historyManager) {
+            history = exposed(new ArrayList<>(historyManager.getHistory()));
+        }
+        history.replaceAll(this::detach);
+        return history;
+    }
+
+    // Эпик меняется на месте под блокировкой своей полосы, поэтому наружу отдаётся копия, снятая под ней же.
+    private Task detach(Task task) {
+        if (!(task instanceof Epic epic)) {
+            return task;
+        }
+        ReentrantLock lock = stripe(epic.getId());
+        lock.lock();
+        try {
+            return epic.copy();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void inTransaction(Consumer<TaskManager> body) {
+        if (inTransaction()) {
+            body.accept(this);
+            return;
+        }
+        lockAll();
+        try {
+            UndoLog log;
+            synchronized (historyManager) {
+                log = new UndoLog(id.get(), historyManager.getHistory());
+            }
+            undoLog = log;
+            try {
+                body.accept(this);
+            } catch (RuntimeException | Error exception) {
+                undoLog = null;
+                rollback(log);
+                throw exception;
+            } finally {
+                undoLog = null;
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void rollback(UndoLog log) {
+        int next = id.get();
+        log.rollback(next, new UndoLog.Target() {
+            @Override
+            public void discard(int taskId) {
+                tasks.remove(taskId);
+                epics.remove(taskId);
+                subTasks.remove(taskId);
+                byId.remove(taskId);
+                unschedule(taskId);
+            }
+
+            @Override
+            public void restore(Task image) {
+                switch (image.getType()) {
+                    case TASK -> tasks.put(image.getId(), image);
+                    case EPIC -> epics.put(image.getId(), (Epic) image);
+                    case SUBTASK -> subTasks.put(image.getId(), (SubTask) image);
+                }
+                byId.put(image.getId(), image);
+                if (image.getType() != Type.EPIC) {
+                    synchronized (slotLock) {
+                        prioritizedIndex.put(image);
+                    }
+                }
+            }
+        });
+        // Потоки, успевшие получить id во время транзакции, ждут полосу - их id повторно не выдаём.
+        id.compareAndSet(next, log.firstNewId());
+        synchronized (historyManager) {
+            historyManager.getHistory().forEach(task -> historyManager.remove(task.getId()));
+            log.history().forEach(historyManager::addHistory);
+        }
+    }
+
+    private boolean inTransaction() {
+        return stripes[0].isHeldByCurrentThread() && undoLog != null;
+    }
+
+    private void beforeChange(int taskId) {
+        if (inTransaction()) {
+            undoLog.save(taskId, byId.get(taskId));
+        }
+    }
+
+    private <T extends Task> List<T> exposed(List<T> result) {
+        if (inTransaction()) {
+            result.forEach(task -> beforeChange(task.getId()));
+        }
+        return result;
+    }
+
+    private void schedule(Task task, String overlapMessage) {
+        synchronized (slotLock) {
+            if (prioritizedIndex.overlaps(task)) {
+                throw new TimeOverlapException(overlapMessage);
+            }
+            prioritizedIndex.put(task);
+        }
+    }
+
+    private void unschedule(int id) {
+        synchronized (slotLock) {
+            prioritizedIndex.remove(id);
+        }
+    }
+
+    private void remember(Task task) {
+        synchronized (historyManager) {
+            historyManager.addHistory(task);
+        }
+    }
+
+    private void forget(int id) {
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    private int stripeIndex(int id) {
+        return (id ^ (id >>> 16)) & (stripes.length - 1);
+    }
+
+    private ReentrantLock stripe(int id) {
+        return stripes[stripeIndex(id)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+}
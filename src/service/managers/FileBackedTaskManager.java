@@ -1,198 +1,678 @@
 package service.managers;
 
 import exception.ManagerSaveException;
-import model.enums.Status;
+import model.BulkResult;
+import model.enums.Durability;
+import model.enums.SnapshotFormat;
+import model.enums.StorageMode;
 import model.enums.Type;
 import model.tasks.Epic;
 import model.tasks.SubTask;
 import model.tasks.Task;
+import service.storage.BinarySnapshot;
+import service.storage.CompressedSnapshot;
+import service.storage.JournalCompactor;
+import service.storage.ParallelTaskLoader;
+import service.storage.SegmentStore;
+import service.storage.TaskCsvParser;
+import service.storage.TaskJournal;
+import service.interfaces.TaskManager;
+import service.storage.WriteBehindPersister;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.time.LocalDateTime;
-
-public class FileBackedTaskManager extends InMemoryTaskManager {
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class FileBackedTaskManager extends InMemoryTaskManager implements Closeable {
+    private static final String HEADER = TaskCsvParser.HEADER;
+    private static final String PUT = "PUT";
+    private static final String REMOVE = "REMOVE";
+    private static final String CLEAR = "CLEAR";
     private final File file;
-    private static final int TASK_WITH_TIME_LENGTH = 6;
+    private final StorageMode mode;
+    private final Durability durability;
+    private final TaskJournal journal;
+    private volatile WriteBehindPersister persister;
+    private SegmentStore segments;
+    private final Set<Integer> dirty = new HashSet<>();
+    private final Set<Integer> removedEpics = new HashSet<>();
+    private List<String> pending;
+    private boolean segmentsSynced;
+    private boolean folding;
+    private final JournalCompactor compactor = new JournalCompactor();
+    private final TaskCsvParser parser = new TaskCsvParser();
+    private final ParallelTaskLoader loader = new ParallelTaskLoader();
+    private SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
 
     public FileBackedTaskManager(File file) {
+        this(file, StorageMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(File file, StorageMode mode) {
+        this(file, mode, Durability.ASYNC);
+    }
+
+    public FileBackedTaskManager(File file, StorageMode mode, Durability durability) {
         this.file = file;
+        this.mode = mode;
+        this.durability = durability;
+        this.journal = new TaskJournal(TaskJournal.journalFor(file), durability);
+        this.segments = mode == StorageMode.SEGMENTED ? SegmentStore.open(SegmentStore.directoryFor(file)) : null;
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file);
-        try (Reader fileReader = new FileReader(file, StandardCharsets.UTF_8);
-             BufferedReader br = new BufferedReader(fileReader)) {
-            while (br.ready()) {
-                String line = br.readLine();
-                if (line.equals("id,type,name,status,description,epic,startTime,duration")) {
-                    continue;
-                }
+        return loadFromFile(file, StorageMode.SNAPSHOT);
+    }
 
-                Task task = fileBackedTaskManager.fromString(line);
-                fileBackedTaskManager.idGenerate();
+    public static FileBackedTaskManager loadFromFile(File file, StorageMode mode) {
+        return loadFromFile(file, mode, Durability.ASYNC);
+    }
 
-                if (Type.TASK == task.getType()) {
-                    Task task1 = fileBackedTaskManager.fromString(line);
-                    fileBackedTaskManager.tasks.put(task.getId(), task1);
-                }
-                if (Type.EPIC == task.getType()) {
-                    Epic epic = (Epic) fileBackedTaskManager.fromString(line);
-                    fileBackedTaskManager.epics.put(epic.getId(), epic);
-                }
-                if (Type.SUBTASK == task.getType()) {
-                    SubTask subTask = (SubTask) fileBackedTaskManager.fromString(line);
-                    fileBackedTaskManager.subTasks.put(subTask.getId(), subTask);
-                    Epic epic = fileBackedTaskManager.epics.get(subTask.getIdEpic());
-                    epic.getSubTaskEpicsId().add(subTask.getId());
+    public static FileBackedTaskManager loadFromFile(File file, StorageMode mode, Durability durability) {
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, mode, durability);
+        boolean migrate = fileBackedTaskManager.segments != null && !fileBackedTaskManager.segments.exists()
+                && file.exists();
+        if (file.exists() || fileBackedTaskManager.segments != null) {
+            fileBackedTaskManager.readSnapshot();
+        }
+        List<String> sealed = new TaskJournal(TaskJournal.sealedFor(file)).read();
+        List<String> records = fileBackedTaskManager.journal.read();
+        for (String record : sealed) {
+            fileBackedTaskManager.apply(record);
+        }
+        for (String record : records) {
+            fileBackedTaskManager.apply(record);
+        }
+        fileBackedTaskManager.epics.values().forEach(fileBackedTaskManager::addDurationToStartDateTime);
+        if (mode != StorageMode.JOURNAL && (migrate || !sealed.isEmpty() || !records.isEmpty())) {
+            fileBackedTaskManager.save();
+        }
+        return fileBackedTaskManager;
+    }
+
+    private void readSnapshot() {
+        List<Task> loaded = segments != null && segments.exists() ? loader.load(segments.files())
+                : file.exists() ? loader.load(file) : List.of();
+        segmentsSynced = segments != null && segments.exists();
+        for (Task task : loaded) {
+            id = Math.max(id, task.getId() + 1);
+            register(task);
+            switch (task.getType()) {
+                case TASK -> tasks.put(task.getId(), task);
+                case EPIC -> epics.put(task.getId(), (Epic) task);
+                case SUBTASK -> subTasks.put(task.getId(), (SubTask) task);
+            }
+        }
+        for (Task task : loaded) {
+            if (task.getType() == Type.SUBTASK && subTasks.get(task.getId()) == task) {
+                Epic epic = epics.get(((SubTask) task).getIdEpic());
+                if (epic == null) {
+                    dropOrphan((SubTask) task);
+                    continue;
                 }
+                epic.trackSubTask((SubTask) task);
+            }
+            if (task.getType() != Type.EPIC
+                    && (tasks.get(task.getId()) == task || subTasks.get(task.getId()) == task)) {
+                prioritizedIndex.put(task);
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
-        return fileBackedTaskManager;
     }
 
-    public void save() {
-        try (Writer fileWriter = new FileWriter(file, StandardCharsets.UTF_8);
-             BufferedWriter br = new BufferedWriter(fileWriter)) {
+    private void dropOrphan(SubTask subTask) {
+        subTasks.remove(subTask.getId());
+        unregister(subTask.getId());
+        touch(subTask.getId());
+        System.out.println("Подзадача " + subTask.getId() + " ссылается на отсутствующий эпик "
+                + subTask.getIdEpic() + " и пропущена.");
+    }
+
+    public synchronized void save() {
+        awaitCompaction();
+        if (segments != null) {
+            writeSegments();
+        } else {
+            writeSnapshot(file);
+        }
+        journal.truncate();
+        deleteSealed(TaskJournal.sealedFor(file));
+    }
+
+    public void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    public synchronized void exportSnapshot(File target, SnapshotFormat format) {
+        awaitCompaction();
+        writeSnapshot(target, format);
+    }
+
+    public synchronized void setSegmentSize(int segmentSize) {
+        if (segments == null) {
+            throw new IllegalStateException("Размер сегмента задаётся только в режиме SEGMENTED.");
+        }
+        boolean existed = segments.exists();
+        segments = new SegmentStore(segments.getDirectory(), segmentSize);
+        if (existed) {
+            writeSegments();
+        }
+    }
+
+    public void setCompactionThresholds(long maxJournalBytes, int maxJournalRecords) {
+        compactor.setThresholds(maxJournalBytes, maxJournalRecords);
+    }
+
+    public void setGroupCommit(long commitIntervalMillis, int commitRecords) {
+        journal.setCommitPolicy(commitIntervalMillis, commitRecords);
+    }
+
+    public void setWriteBehindInterval(long intervalMillis) {
+        if (mode != StorageMode.WRITE_BEHIND) {
+            throw new IllegalStateException("Интервал сохранения задаётся только в режиме WRITE_BEHIND.");
+        }
+        persister().setInterval(intervalMillis);
+    }
+
+    // Фоновое сохранение создаётся при первом обращении, а не в конструкторе, чтобы this::save
+    // не уходил из ещё не созданного объекта.
+    private synchronized WriteBehindPersister persister() {
+        if (persister == null) {
+            persister = new WriteBehindPersister(this::save);
+        }
+        return persister;
+    }
+
+    public void flush() {
+        WriteBehindPersister persister = this.persister;
+        if (persister != null) {
+            persister.flush();
+        }
+        journal.flush();
+    }
 
-            br.write("id,type,name,status,description,epic,startTime,duration\n");
+    public void compact() {
+        if (mode != StorageMode.JOURNAL) {
+            save();
+            return;
+        }
+        synchronized (this) {
+            awaitCompaction();
+            compactInBackground();
+            awaitCompaction();
+        }
+    }
 
-            for (Task task : tasks.values()) {
-                br.write(toString(task) + "\n");
+    // Свёртка пишет снимок под монитором менеджера, поэтому ждать её, держа монитор, можно только через wait().
+    private void awaitCompaction() {
+        try {
+            while (folding) {
+                wait();
             }
-            for (Epic epic : epics.values()) {
-                br.write(toString(epic) + "\n");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание сжатия журнала прервано.");
+        }
+        compactor.await();
+    }
+
+    private void compactInBackground() {
+        File sealed = TaskJournal.sealedFor(file);
+        if (!sealed.exists()) {
+            journal.seal(sealed);
+        }
+        SnapshotFormat format = snapshotFormat;
+        folding = compactor.submit(() -> fold(sealed, format));
+    }
+
+    private void fold(File sealed, SnapshotFormat format) {
+        try {
+            FileBackedTaskManager folded = new FileBackedTaskManager(file, StorageMode.SNAPSHOT, Durability.SYNC);
+            if (file.exists()) {
+                folded.readSnapshot();
             }
-            for (SubTask subTask : subTasks.values()) {
-                br.write(toString(subTask) + "\n");
+            for (String record : new TaskJournal(sealed).read()) {
+                folded.apply(record);
             }
+            byte[] snapshot = folded.render(format);
+            synchronized (this) {
+                folded.write(file, snapshot);
+                deleteSealed(sealed);
+            }
+        } finally {
+            synchronized (this) {
+                folding = false;
+                notifyAll();
+            }
+        }
+    }
+
+    private static void deleteSealed(File sealed) {
+        if (sealed.exists() && !sealed.delete()) {
+            throw new ManagerSaveException("Ошибка удаления свёрнутого журнала.");
+        }
+    }
 
+    private void writeSnapshot(File target) {
+        writeSnapshot(target, snapshotFormat);
+    }
+
+    private void writeSnapshot(File target, SnapshotFormat format) {
+        write(target, render(format));
+    }
+
+    private void write(File target, byte[] snapshot) {
+        File temp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp)) {
+            stream.write(snapshot);
+            if (durability != Durability.ASYNC) {
+                stream.getChannel().force(false);
+            }
         } catch (IOException exception) {
             throw new ManagerSaveException("Ошибка сохранения.");
         }
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка замены снимка.");
+        }
     }
 
-    public String toString(Task task) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(task.getId()).append(",")
-                .append(task.getType()).append(",")
-                .append(task.getName()).append(",")
-                .append(task.getStatus());
+    private synchronized byte[] render(SnapshotFormat format) {
+        List<Task> all = new ArrayList<>(tasks.size() + epics.size() + subTasks.size());
+        all.addAll(tasks.values());
+        all.addAll(epics.values());
+        all.addAll(subTasks.values());
+        return encode(all, format);
+    }
 
-        if (task.getType() == Type.TASK) {
-            builder.append(",").append(task.getDescription());
+    private byte[] encode(List<Task> items, SnapshotFormat format) {
+        if (format == SnapshotFormat.BINARY) {
+            return BinarySnapshot.encode(items);
+        }
+        if (format == SnapshotFormat.COMPRESSED) {
+            return CompressedSnapshot.encode(items);
         }
+        StringBuilder builder = new StringBuilder(HEADER).append('\n');
+        for (Task task : items) {
+            builder.append(toString(task)).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
 
-        if (task.getType() == Type.SUBTASK) {
-            builder.append(",").append(task.getDescription()).append(",").append(((SubTask) task).getIdEpic());
+    private synchronized void writeSegments() {
+        Map<Integer, List<Task>> bySegment = new TreeMap<>();
+        for (Map<Integer, ? extends Task> store : List.of(tasks, epics, subTasks)) {
+            for (Task task : store.values()) {
+                bySegment.computeIfAbsent(segments.segmentOf(task.getId()), segment -> new ArrayList<>()).add(task);
+            }
+        }
+        bySegment.forEach((segment, items) ->
+                segments.write(segment, encode(items, snapshotFormat), durability != Durability.ASYNC));
+        for (int segment : segments.segments()) {
+            if (!bySegment.containsKey(segment)) {
+                segments.delete(segment);
+            }
+        }
+        dirty.clear();
+        removedEpics.clear();
+        segmentsSynced = true;
+    }
+
+    private void writeDirtySegments() {
+        if (!segmentsSynced) {
+            writeSegments();
+            return;
+        }
+        // Сегменты переписываются по одному, поэтому порядок подбирается так, чтобы обрыв посередине не оставил
+        // подзадачу без эпика: сначала сегменты с новыми и изменёнными эпиками, в конце - с удалёнными.
+        Map<Integer, Integer> ranks = new TreeMap<>();
+        for (int dirtyId : dirty) {
+            int rank = epics.containsKey(dirtyId) ? 0 : removedEpics.contains(dirtyId) ? 2 : 1;
+            ranks.merge(segments.segmentOf(dirtyId), rank, Math::min);
+        }
+        List<Integer> touched = new ArrayList<>(ranks.keySet());
+        touched.sort(Comparator.comparing(ranks::get));
+        for (int segment : touched) {
+            List<Task> items = new ArrayList<>();
+            int first = segments.firstId(segment);
+            for (int taskId = first; taskId < first + segments.getSegmentSize(); taskId++) {
+                Task task = tasks.get(taskId);
+                if (task == null) {
+                    task = epics.get(taskId);
+                }
+                if (task == null) {
+                    task = subTasks.get(taskId);
+                }
+                if (task != null) {
+                    items.add(task);
+                }
+            }
+            if (items.isEmpty()) {
+                segments.delete(segment);
+            } else {
+                segments.write(segment, encode(items, snapshotFormat), durability != Durability.ASYNC);
+            }
         }
+        dirty.clear();
+        removedEpics.clear();
+    }
 
-        if (task.getStartTime() != null) {
-            builder.append(",").append(task.getStartTime()).append(",").append(task.getDuration());
+    private void touch(int taskId) {
+        if (segments != null) {
+            dirty.add(taskId);
         }
-        return builder.toString();
     }
 
-    public Task fromString(String value) {
-        String[] taskSplit = value.split(",");
+    private void removeEpic(int epicId) {
+        if (segments != null && epics.containsKey(epicId)) {
+            removedEpics.add(epicId);
+            epics.get(epicId).getSubTaskIds().forEach(this::touch);
+        }
+    }
 
-        if (Type.TASK == Type.valueOf(taskSplit[1])) {
-            if (taskSplit.length > TASK_WITH_TIME_LENGTH) {
-                return new Task(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]), taskSplit[4],
-                        LocalDateTime.parse(taskSplit[5]), Duration.parse(taskSplit[6]));
+    private void touch(List<String> records) {
+        for (String record : records) {
+            int separator = record.indexOf(',');
+            String operation = record.substring(0, separator);
+            String value = record.substring(separator + 1);
+            switch (operation) {
+                case PUT -> touch(Integer.parseInt(value.substring(0, value.indexOf(','))));
+                case REMOVE -> touch(Integer.parseInt(value));
+                default -> segments.segments().forEach(segment -> touch(segments.firstId(segment)));
             }
-            return new Task(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]), taskSplit[4]);
         }
+    }
 
-        if (Type.EPIC == Type.valueOf(taskSplit[1])) {
-            return new Epic(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]));
+    @Override
+    public void close() {
+        try {
+            compactor.close();
+            WriteBehindPersister persister = this.persister;
+            if (persister != null) {
+                persister.close();
+            }
+        } finally {
+            journal.close();
         }
+    }
+
+    // Вложенность проверяется под монитором: pending задаёт и читает только поток, который держит монитор,
+    // поэтому чужой поток не может присоединиться к транзакции.
+    @Override
+    public void inTransaction(Consumer<TaskManager> body) {
+        long position = 0;
+        synchronized (this) {
+            if (pending != null) {
+                super.inTransaction(body);
+                return;
+            }
+            List<String> records = new ArrayList<>();
+            pending = records;
+            try {
+                super.inTransaction(body);
+            } finally {
+                pending = null;
+            }
+            if (!records.isEmpty()) {
+                position = record(records, true);
+            }
+        }
+        journal.await(position);
+    }
 
-        if (Type.SUBTASK == Type.valueOf(taskSplit[1])) {
-            if (taskSplit.length > TASK_WITH_TIME_LENGTH) {
-                return new SubTask(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]),
-                        taskSplit[4], Integer.parseInt(taskSplit[5]), LocalDateTime.parse(taskSplit[6]),
-                        Duration.parse(taskSplit[7]));
+    private void persist(Runnable change, Supplier<List<String>> records) {
+        long position;
+        synchronized (this) {
+            change.run();
+            if (pending != null) {
+                pending.addAll(records.get());
+                return;
             }
-            return new SubTask(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]),
-                    taskSplit[4], Integer.parseInt(taskSplit[5]));
+            position = record(records.get(), false);
         }
-        return null;
+        journal.await(position);
+    }
+
+    private long record(List<String> records, boolean atomic) {
+        long position = 0;
+        if (mode == StorageMode.JOURNAL) {
+            position = journal.write(records, atomic);
+            if (!compactor.isRunning() && compactor.shouldCompact(journal)) {
+                compactInBackground();
+            }
+        } else if (mode == StorageMode.WRITE_BEHIND) {
+            persister().markDirty();
+        } else if (mode == StorageMode.SEGMENTED) {
+            touch(records);
+            writeDirtySegments();
+        } else {
+            save();
+        }
+        return position;
+    }
+
+    private String put(Task task) {
+        return PUT + "," + toString(task);
+    }
+
+    private void apply(String record) {
+        int separator = record.indexOf(',');
+        String operation = record.substring(0, separator);
+        String value = record.substring(separator + 1);
+        switch (operation) {
+            case PUT -> restore(fromString(value));
+            case REMOVE -> forget(Integer.parseInt(value));
+            case CLEAR -> clear(Type.valueOf(value));
+            default -> throw new ManagerSaveException("Неизвестная запись журнала: " + record);
+        }
+    }
+
+    // Повтор журнала должен быть идемпотентным: после падения между записью снимка и усечением журнала
+    // повторяются записи, которые снимок уже содержит, в том числе подзадачи уже удалённых эпиков.
+    private void restore(Task task) {
+        id = Math.max(id, task.getId() + 1);
+        register(task);
+        switch (task.getType()) {
+            case TASK -> {
+                tasks.put(task.getId(), task);
+                prioritizedIndex.put(task);
+            }
+            case EPIC -> {
+                Epic epic = (Epic) task;
+                Epic previous = epics.put(epic.getId(), epic);
+                if (previous != null) {
+                    epic.inheritSubTasks(previous);
+                }
+            }
+            case SUBTASK -> {
+                SubTask subTask = (SubTask) task;
+                SubTask previous = subTasks.put(subTask.getId(), subTask);
+                if (previous != null) {
+                    Epic previousEpic = epics.get(previous.getIdEpic());
+                    if (previousEpic != null) {
+                        previousEpic.untrackSubTask(previous.getId());
+                        checkStatus(previousEpic);
+                    }
+                }
+                Epic epic = epics.get(subTask.getIdEpic());
+                if (epic == null) {
+                    prioritizedIndex.remove(subTask.getId());
+                    dropOrphan(subTask);
+                    return;
+                }
+                epic.trackSubTask(subTask);
+                checkStatus(epic);
+                prioritizedIndex.put(subTask);
+            }
+        }
+    }
+
+    private void forget(int id) {
+        if (tasks.containsKey(id)) {
+            super.deleteTaskById(id);
+        } else if (epics.containsKey(id)) {
+            super.deleteEpicById(id);
+        } else if (subTasks.containsKey(id)) {
+            super.deleteSubtaskById(id);
+        }
+    }
+
+    private void clear(Type type) {
+        switch (type) {
+            case TASK -> super.deleteAllTasks();
+            case EPIC -> super.deleteAllEpics();
+            case SUBTASK -> super.deleteAllSubTasks();
+        }
+    }
+
+    public String toString(Task task) {
+        return TaskCsvParser.format(task);
+    }
+
+    public Task fromString(String value) {
+        return parser.parse(value);
     }
 
     @Override
     public void createTask(Task task) {
-        super.createTask(task);
-        save();
+        persist(() -> super.createTask(task), () -> List.of(put(task)));
     }
 
     @Override
     public void createEpic(Epic epic) {
-        super.createEpic(epic);
-        save();
+        persist(() -> super.createEpic(epic), () -> List.of(put(epic)));
     }
 
     @Override
     public void createSubtask(SubTask subTask) {
-        super.createSubtask(subTask);
-        save();
+        persist(() -> super.createSubtask(subTask),
+                () -> List.of(put(subTask), put(epics.get(subTask.getIdEpic()))));
+    }
+
+    @Override
+    public BulkResult<Task> createTasks(Collection<? extends Task> batch) {
+        AtomicReference<BulkResult<Task>> result = new AtomicReference<>();
+        persist(() -> result.set(super.createTasks(batch)), () -> records(result.get().getAccepted(), Set.of()));
+        return result.get();
+    }
+
+    @Override
+    public BulkResult<SubTask> createSubtasks(Collection<? extends SubTask> batch) {
+        AtomicReference<BulkResult<SubTask>> result = new AtomicReference<>();
+        persist(() -> result.set(super.createSubtasks(batch)), () -> records(result.get().getAccepted(), Set.of()));
+        return result.get();
+    }
+
+    @Override
+    public BulkResult<SubTask> updateSubTasks(Collection<? extends SubTask> batch) {
+        AtomicReference<BulkResult<SubTask>> result = new AtomicReference<>();
+        Set<Integer> previousEpics = new HashSet<>();
+        persist(() -> {
+            for (SubTask subTask : batch) {
+                if (subTasks.containsKey(subTask.getId())) {
+                    previousEpics.add(subTasks.get(subTask.getId()).getIdEpic());
+                }
+            }
+            result.set(super.updateSubTasks(batch));
+        }, () -> records(result.get().getAccepted(), previousEpics));
+        return result.get();
+    }
+
+    private List<String> records(List<? extends Task> accepted, Set<Integer> previousEpics) {
+        List<String> records = new ArrayList<>(accepted.size());
+        Set<Integer> affected = new TreeSet<>(previousEpics);
+        for (Task task : accepted) {
+            records.add(put(task));
+            if (task instanceof SubTask subTask) {
+                affected.add(subTask.getIdEpic());
+            }
+        }
+        for (int epicId : affected) {
+            if (epics.containsKey(epicId)) {
+                records.add(put(epics.get(epicId)));
+            }
+        }
+        return records;
     }
 
     @Override
     public void deleteAllEpics() {
-        super.deleteAllEpics();
-        save();
+        persist(() -> {
+            epics.values().forEach(epic -> removeEpic(epic.getId()));
+            super.deleteAllEpics();
+        }, () -> List.of(CLEAR + "," + Type.EPIC));
     }
 
     @Override
     public void deleteAllSubTasks() {
-        super.deleteAllSubTasks();
-        save();
+        persist(super::deleteAllSubTasks, () -> List.of(CLEAR + "," + Type.SUBTASK));
     }
 
     @Override
     public void deleteAllTasks() {
-        super.deleteAllTasks();
-        save();
+        persist(super::deleteAllTasks, () -> List.of(CLEAR + "," + Type.TASK));
     }
 
     @Override
     public void deleteEpicById(int id) {
-        super.deleteEpicById(id);
-        save();
+        persist(() -> {
+            removeEpic(id);
+            super.deleteEpicById(id);
+        }, () -> List.of(REMOVE + "," + id));
     }
 
     @Override
     public void deleteSubtaskById(int id) {
-        super.deleteSubtaskById(id);
-        save();
+        persist(() -> {
+            if (subTasks.containsKey(id)) {
+                touch(subTasks.get(id).getIdEpic());
+            }
+            super.deleteSubtaskById(id);
+        }, () -> List.of(REMOVE + "," + id));
     }
 
     @Override
     public void deleteTaskById(int id) {
-        super.deleteTaskById(id);
-        save();
+        persist(() -> super.deleteTaskById(id), () -> List.of(REMOVE + "," + id));
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
+        persist(() -> super.updateEpic(epic), () -> List.of(put(epic)));
     }
 
     @Override
     public void updateSubTask(SubTask subTask) {
-        super.updateSubTask(subTask);
-        save();
+        persist(() -> {
+            if (subTasks.containsKey(subTask.getId())) {
+                touch(subTasks.get(subTask.getId()).getIdEpic());
+            }
+            touch(subTask.getIdEpic());
+            super.updateSubTask(subTask);
+        }, () -> List.of(put(subTask)));
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+        persist(() -> super.updateTask(task), () -> List.of(put(task)));
     }
 
 }
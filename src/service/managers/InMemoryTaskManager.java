@@ -2,34 +2,64 @@ package service.managers;
 
 import exception.TaskNotFoundException;
 import exception.TimeOverlapException;
-import model.tasks.Epic;
+import model.BulkResult;
 import model.enums.Status;
+import model.tasks.Epic;
+import model.enums.Type;
 import model.tasks.SubTask;
 import model.tasks.Task;
 import service.interfaces.HistoryManager;
+import service.index.PrioritizedIndex;
+import service.index.StatusIndex;
 import service.interfaces.TaskManager;
+import util.IntHashSet;
+import util.IntObjectMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected Map<Integer, Task> tasks = new HashMap<>();
-    protected Map<Integer, SubTask> subTasks = new HashMap<>();
-    protected Map<Integer, Epic> epics = new HashMap<>();
+    protected IntObjectMap<Task> tasks = new IntObjectMap<>();
+    protected IntObjectMap<SubTask> subTasks = new IntObjectMap<>();
+    protected IntObjectMap<Epic> epics = new IntObjectMap<>();
+    protected IntObjectMap<Task> byId = new IntObjectMap<>();
     protected int id = 1;
     HistoryManager historyManager = Managers.getDefaultHistory();
 
-    protected Set<Task> taskSet = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+    protected PrioritizedIndex prioritizedIndex = new PrioritizedIndex();
+    protected StatusIndex statusIndex = new StatusIndex();
+    private UndoLog undoLog;
 
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(taskSet);
+        return exposed(prioritizedIndex.toList());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return exposed(prioritizedIndex.range(from, to));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return exposed(prioritizedIndex.range(from, to, limit));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return prioritizedIndex.findFreeSlot(duration, notBefore, notAfter);
+    }
+
+    @Override
+    public List<Task> nextScheduled(LocalDateTime after, int limit) {
+        return exposed(prioritizedIndex.after(after, limit));
     }
 
     public boolean startCheckTaskOverlap(Task task) {
-        return taskSet.stream().noneMatch(taskIn -> checkTaskOverlap(taskIn, task));
+        return !prioritizedIndex.overlaps(task);
     }
 
     public boolean checkTaskOverlap(Task taskInSet, Task task) {
@@ -37,34 +67,12 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     public void addDurationToStartDateTime(Epic epic) {
-        Optional<LocalDateTime> startTime = epic.getSubTaskEpicsId().stream()
-                .map(subTaskId -> subTasks.get(subTaskId))
-                .map(Optional::ofNullable)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(Task::getStartTime)
-                .filter(Objects::nonNull)
-                .min(Comparator.naturalOrder());
-
-        Optional<LocalDateTime> endTime = epic.getSubTaskEpicsId().stream()
-                .map(subTaskId -> subTasks.get(subTaskId))
-                .map(Optional::ofNullable)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(subTask -> subTask.getStartTime() != null)
-                .map(Task::getEndTime)
-                .max(Comparator.naturalOrder());
-
-        startTime.ifPresent(epic::setStartTime);
-        endTime.ifPresent(epic::setEndTime);
-        if (startTime.isPresent() && endTime.isPresent()) {
-            epic.setDuration(Duration.between(startTime.get(), endTime.get()));
-        }
+        epic.refreshTimeline();
     }
 
     @Override
     public List<Task> getHistory() {
-        return new ArrayList<>(historyManager.getHistory());
+        return exposed(new ArrayList<>(historyManager.getHistory()));
     }
 
     protected int idGenerate() {
@@ -73,24 +81,29 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks.values());
+        return exposed(new ArrayList<>(tasks.values()));
     }
 
     @Override
     public List<Epic> getAllEpics() {
-        return new ArrayList<>(epics.values());
+        return exposed(new ArrayList<>(epics.values()));
     }
 
     @Override
     public List<SubTask> getAllSubTask() {
-        return new ArrayList<>(subTasks.values());
+        return exposed(new ArrayList<>(subTasks.values()));
     }
 
     @Override
     public void deleteAllTasks() {
         tasks.values().stream()
                 .map(Task::getId)
-                .forEach(historyManager::remove);
+                .forEach(taskId -> {
+                    beforeChange(taskId);
+                    historyManager.remove(taskId);
+                    prioritizedIndex.remove(taskId);
+                    unregister(taskId);
+                });
         tasks.clear();
     }
 
@@ -98,14 +111,22 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteAllEpics() {
         subTasks.values().stream()
                 .map(SubTask::getId)
-                .forEach(historyManager::remove);
+                .forEach(subTaskId -> {
+                    beforeChange(subTaskId);
+                    historyManager.remove(subTaskId);
+                    prioritizedIndex.remove(subTaskId);
+                    unregister(subTaskId);
+                });
 
         epics.values().stream()
                 .map(Epic::getId)
-                .forEach(historyManager::remove);
+                .forEach(epicId -> {
+                    beforeChange(epicId);
+                    historyManager.remove(epicId);
+                    unregister(epicId);
+                });
 
         subTasks.clear();
-        taskSet.clear();
         epics.clear();
     }
 
@@ -113,34 +134,54 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteAllSubTasks() {
         subTasks.values().stream()
                 .map(SubTask::getId)
-                .forEach(historyManager::remove);
+                .forEach(subTaskId -> {
+                    beforeChange(subTaskId);
+                    historyManager.remove(subTaskId);
+                    prioritizedIndex.remove(subTaskId);
+                    unregister(subTaskId);
+                });
 
         subTasks.clear();
 
-        epics.keySet().stream()
-                .map(epics::get)
+        epics.values()
                 .forEach(epic -> {
-                    epic.getSubTaskEpicsId().clear();
+                    beforeChange(epic.getId());
+                    epic.clearTrackedSubTasks();
                     checkStatus(epic);
                 });
     }
 
+    @Override
+    public Task getById(int id) {
+        Task task = byId.get(id);
+        beforeChange(id);
+        historyManager.addHistory(task);
+        return task;
+    }
+
     @Override
     public Task getByIdTasks(int id) {
-        historyManager.addHistory(tasks.get(id));
-        return tasks.get(id);
+        return getById(id, Type.TASK);
     }
 
     @Override
     public Epic getByIdEpics(int id) {
-        historyManager.addHistory(epics.get(id));
-        return epics.get(id);
+        return (Epic) getById(id, Type.EPIC);
     }
 
     @Override
     public SubTask getByIdSubTasks(int id) {
-        historyManager.addHistory(subTasks.get(id));
-        return subTasks.get(id);
+        return (SubTask) getById(id, Type.SUBTASK);
+    }
+
+    private Task getById(int id, Type type) {
+        Task task = byId.get(id);
+        if (task == null || task.getType() != type) {
+            return null;
+        }
+        beforeChange(id);
+        historyManager.addHistory(task);
+        return task;
     }
 
     @Override
@@ -148,12 +189,13 @@ public class InMemoryTaskManager implements TaskManager {
         task.setId(idGenerate());
         if (task.getStartTime() != null) {
             if (startCheckTaskOverlap(task)) {
-                taskSet.add(task);
+                prioritizedIndex.put(task);
             } else {
                 throw new TimeOverlapException("Найдено пересечение по времени.");
             }
         }
         tasks.put(task.getId(), task);
+        register(task);
     }
 
     @Override
@@ -163,48 +205,64 @@ public class InMemoryTaskManager implements TaskManager {
             addDurationToStartDateTime(epic);
         }
         epics.put(epic.getId(), epic);
+        register(epic);
     }
 
     @Override
     public void createSubtask(SubTask subTask) {
         subTask.setId(idGenerate());
         Epic epic = epics.get(subTask.getIdEpic());
-        if (subTask.getStartTime() == null) {
-            subTasks.put(subTask.getId(), subTask);
-            epic.getSubTaskEpicsId().add(subTask.getId());
+        if (!startCheckTaskOverlap(subTask)) {
+            throw new TimeOverlapException("Добавление невозможно, найдено пересечение по времени.");
         }
+        beforeChange(subTask.getIdEpic());
+        attachSubTask(subTask, epic);
+        checkStatus(epic);
+    }
 
-        if (subTask.getStartTime() != null) {
-            if (startCheckTaskOverlap(subTask)) {
-                taskSet.add(subTask);
-                subTasks.put(subTask.getId(), subTask);
-                epic.getSubTaskEpicsId().add(subTask.getId());
-            } else {
-                throw new TimeOverlapException("Добавление невозможно, найдено пересечение по времени.");
+    @Override
+    public BulkResult<Task> createTasks(Collection<? extends Task> batch) {
+        List<Task> items = new ArrayList<>(batch);
+        items.forEach(task -> task.setId(idGenerate()));
+        return schedule(items, new TreeMap<>(), "Найдено пересечение по времени.", task -> null, task -> {
+            prioritizedIndex.put(task);
+            tasks.put(task.getId(), task);
+            register(task);
+        });
+    }
+
+    @Override
+    public BulkResult<SubTask> createSubtasks(Collection<? extends SubTask> batch) {
+        List<SubTask> items = new ArrayList<>(batch);
+        Map<Integer, RuntimeException> failures = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            SubTask subTask = items.get(i);
+            subTask.setId(idGenerate());
+            if (!epics.containsKey(subTask.getIdEpic())) {
+                failures.put(i, new TaskNotFoundException("Эпика с ID - " + subTask.getIdEpic() + " не существует."));
             }
         }
-        addDurationToStartDateTime(epics.get(subTask.getIdEpic()));
-        checkStatus(epics.get(subTask.getIdEpic()));
+        IntHashSet affected = new IntHashSet();
+        BulkResult<SubTask> result = schedule(items, failures,
+                "Добавление невозможно, найдено пересечение по времени.", subTask -> null, subTask -> {
+                    beforeChange(subTask.getIdEpic());
+                    attachSubTask(subTask, epics.get(subTask.getIdEpic()));
+                    affected.add(subTask.getIdEpic());
+                });
+        affected.forEach(epicId -> checkStatus(epics.get(epicId)));
+        return result;
     }
 
     @Override
     public void updateTask(Task task) {
         if (tasks.containsKey(task.getId())) {
-            Task previousTask = tasks.get(task.getId());
-            if (task.getStartTime() != null) {
-                if (previousTask.getStartTime() != null) {
-                    taskSet.remove(previousTask);
-                }
-                if (startCheckTaskOverlap(task)) {
-                    taskSet.add(task);
-                } else {
-                    if (previousTask.getStartTime() != null) {
-                        taskSet.add(previousTask);
-                    }
-                    throw new TimeOverlapException("Обновление невозможно, пересечение по времени.");
-                }
+            if (!startCheckTaskOverlap(task)) {
+                throw new TimeOverlapException("Обновление невозможно, пересечение по времени.");
             }
+            beforeChange(task.getId());
+            prioritizedIndex.put(task);
             tasks.put(task.getId(), task);
+            register(task);
         } else {
             throw new TaskNotFoundException(" ID - " + task.getId() + ", в Задачах отсутствует");
         }
@@ -213,11 +271,11 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void updateEpic(Epic epic) {
         if (epics.containsKey(epic.getId())) {
-            ArrayList<Integer> newEpic = epics.get(epic.getId()).getSubTaskEpicsId();
-            epic.setSubTaskEpicsId(newEpic);
-            addDurationToStartDateTime(epic);
+            beforeChange(epic.getId());
+            epic.inheritSubTasks(epics.get(epic.getId()));
             checkStatus(epic);
             epics.put(epic.getId(), epic);
+            register(epic);
         } else {
             throw new TaskNotFoundException(" ID - " + epic.getId() + ", в Эпиках отсутствует.");
         }
@@ -226,33 +284,123 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void updateSubTask(SubTask subTask) {
         if (subTasks.containsKey(subTask.getId())) {
-            SubTask prviousSubTask = subTasks.get(subTask.getId());
-            if (subTask.getStartTime() != null) {
-                if (prviousSubTask.getStartTime() != null) {
-                    taskSet.remove(prviousSubTask);
-                }
-                if (startCheckTaskOverlap(subTask)) {
-                    taskSet.add(subTask);
-                } else {
-                    if (prviousSubTask.getStartTime() != null) {
-                        taskSet.add(prviousSubTask);
-                    }
-                    throw new TimeOverlapException("Найдено пересечение по времени.");
-                }
+            Epic epic = epics.get(subTask.getIdEpic());
+            if (epic == null) {
+                throw new TaskNotFoundException("Эпика с ID - " + subTask.getIdEpic() + " не существует.");
             }
-            subTasks.put(subTask.getId(), subTask);
+            if (!startCheckTaskOverlap(subTask)) {
+                throw new TimeOverlapException("Найдено пересечение по времени.");
+            }
+            Epic previousEpic = replaceSubTask(subTask, epic);
+            if (previousEpic != epic) {
+                checkStatus(previousEpic);
+            }
+            checkStatus(epic);
         } else {
             throw new TaskNotFoundException(" ID - " + subTask.getId() + ", в Задачах отсутствует");
         }
     }
 
+    @Override
+    public BulkResult<SubTask> updateSubTasks(Collection<? extends SubTask> batch) {
+        List<SubTask> items = new ArrayList<>(batch);
+        Map<Integer, RuntimeException> failures = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            SubTask subTask = items.get(i);
+            if (!subTasks.containsKey(subTask.getId())) {
+                failures.put(i, new TaskNotFoundException(" ID - " + subTask.getId() + ", в Задачах отсутствует"));
+            } else if (!epics.containsKey(subTask.getIdEpic())) {
+                failures.put(i, new TaskNotFoundException("Эпика с ID - " + subTask.getIdEpic() + " не существует."));
+            }
+        }
+        IntHashSet affected = new IntHashSet();
+        BulkResult<SubTask> result = schedule(items, failures, "Найдено пересечение по времени.",
+                subTask -> subTasks.get(subTask.getId()), subTask -> {
+                    Epic previousEpic = replaceSubTask(subTask, epics.get(subTask.getIdEpic()));
+                    affected.add(previousEpic.getId());
+                    affected.add(subTask.getIdEpic());
+                });
+        affected.forEach(epicId -> checkStatus(epics.get(epicId)));
+        return result;
+    }
+
+    private void attachSubTask(SubTask subTask, Epic epic) {
+        prioritizedIndex.put(subTask);
+        subTasks.put(subTask.getId(), subTask);
+        register(subTask);
+        epic.trackSubTask(subTask);
+    }
+
+    private Epic replaceSubTask(SubTask subTask, Epic epic) {
+        Epic previousEpic = epics.get(subTasks.get(subTask.getId()).getIdEpic());
+        beforeChange(subTask.getId());
+        beforeChange(previousEpic.getId());
+        beforeChange(epic.getId());
+        prioritizedIndex.put(subTask);
+        subTasks.put(subTask.getId(), subTask);
+        register(subTask);
+        if (previousEpic != epic) {
+            previousEpic.untrackSubTask(subTask.getId());
+        }
+        epic.trackSubTask(subTask);
+        return previousEpic;
+    }
+
+    /**
+     * Проверяет пакет по времени за один проход в порядке начала. Прежние слоты перемещаемых задач
+     * снимаются с индекса до проверки, поэтому обмен слотами внутри пакета не считается пересечением.
+     * Отклонённая задача возвращается в прежний слот, и если он уже занят принятой в этом проходе,
+     * проход повторяется без неё.
+     */
+    private <T extends Task> BulkResult<T> schedule(List<T> items, Map<Integer, RuntimeException> failures,
+                                                    String overlapMessage, Function<T, Task> previous,
+                                                    Consumer<T> apply) {
+        List<Integer> order = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (!failures.containsKey(i)) {
+                order.add(i);
+            }
+        }
+        order.sort(Comparator.comparing(position -> items.get(position).getStartTime(),
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        boolean settled = false;
+        while (!settled) {
+            order.forEach(position -> prioritizedIndex.remove(items.get(position).getId()));
+            settled = true;
+            List<Integer> placed = new ArrayList<>(order.size());
+            for (int position : order) {
+                T item = items.get(position);
+                if (startCheckTaskOverlap(item)) {
+                    prioritizedIndex.put(item);
+                    placed.add(position);
+                    continue;
+                }
+                failures.put(position, new TimeOverlapException(overlapMessage));
+                Task old = previous.apply(item);
+                if (old != null) {
+                    prioritizedIndex.put(old);
+                    settled = false;
+                }
+            }
+            order = placed;
+        }
+        order.forEach(position -> apply.accept(items.get(position)));
+        List<T> accepted = new ArrayList<>(items.size() - failures.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (!failures.containsKey(i)) {
+                accepted.add(items.get(i));
+            }
+        }
+        return new BulkResult<>(accepted, failures);
+    }
+
     @Override
     public void deleteTaskById(int id) {
         if (tasks.containsKey(id)) {
-            if (tasks.get(id).getStartTime() != null) {
-                taskSet.remove(tasks.get(id));
-            }
+            beforeChange(id);
+            prioritizedIndex.remove(id);
             tasks.remove(id);
+            unregister(id);
             historyManager.remove(id);
         } else {
             throw new TaskNotFoundException(" ID - " + id + ", в Задачах отсутствует.");
@@ -263,10 +411,15 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpicById(int id) {
         if (epics.containsKey(id)) {
             Epic epic = epics.get(id);
-            for (Integer i : epic.getSubTaskEpicsId()) {
-                subTasks.remove(i);
-            }
+            beforeChange(id);
+            epic.getSubTaskIds().forEach(subTaskId -> {
+                beforeChange(subTaskId);
+                subTasks.remove(subTaskId);
+                prioritizedIndex.remove(subTaskId);
+                unregister(subTaskId);
+            });
             epics.remove(id);
+            unregister(id);
         } else {
             throw new TaskNotFoundException(" ID - " + id + ", в Эпиках отсутствует.");
         }
@@ -277,14 +430,12 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubtaskById(int id) {
         if (subTasks.containsKey(id)) {
             Epic epic = epics.get(subTasks.get(id).getIdEpic());
-
-            epic.getSubTaskEpicsId().stream()
-                    .filter(subTaskId -> subTaskId == id)
-                    .findFirst()
-                    .ifPresent(subTaskId -> epic.getSubTaskEpicsId().remove(subTaskId));
-
-            addDurationToStartDateTime(epic);
+            beforeChange(id);
+            beforeChange(epic.getId());
             subTasks.remove(id);
+            prioritizedIndex.remove(id);
+            unregister(id);
+            epic.untrackSubTask(id);
             checkStatus(epic);
         } else {
             throw new TaskNotFoundException(" ID - " + id + ", в Подзадачах отсутствует.");
@@ -296,33 +447,120 @@ public class InMemoryTaskManager implements TaskManager {
     public List<SubTask> getSubtasksForEpic(int idEpic) {
         if (epics.containsKey(idEpic)) {
             Epic epic = epics.get(idEpic);
-            return epic.getSubTaskEpicsId().stream()
-                    .map(subTasks::get)
-                    .collect(Collectors.toList());
+            int[] ids = epic.getSubTaskIds().toArray();
+            Arrays.sort(ids);
+            List<SubTask> result = new ArrayList<>(ids.length);
+            for (int subTaskId : ids) {
+                result.add(subTasks.get(subTaskId));
+            }
+            return exposed(result);
         } else {
             throw new TaskNotFoundException("Эпика с ID - " + idEpic + " не существует.");
         }
     }
 
+    @Override
+    public void inTransaction(Consumer<TaskManager> body) {
+        if (undoLog != null) {
+            body.accept(this);
+            return;
+        }
+        UndoLog log = new UndoLog(id, historyManager.getHistory());
+        undoLog = log;
+        try {
+            body.accept(this);
+        } catch (RuntimeException | Error exception) {
+            undoLog = null;
+            rollback(log);
+            throw exception;
+        } finally {
+            undoLog = null;
+        }
+    }
+
+    private void rollback(UndoLog log) {
+        log.rollback(id, new UndoLog.Target() {
+            @Override
+            public void discard(int taskId) {
+                tasks.remove(taskId);
+                epics.remove(taskId);
+                subTasks.remove(taskId);
+                unregister(taskId);
+                prioritizedIndex.remove(taskId);
+            }
+
+            @Override
+            public void restore(Task image) {
+                register(image);
+                switch (image.getType()) {
+                    case TASK -> {
+                        tasks.put(image.getId(), image);
+                        prioritizedIndex.put(image);
+                    }
+                    case EPIC -> epics.put(image.getId(), (Epic) image);
+                    case SUBTASK -> {
+                        subTasks.put(image.getId(), (SubTask) image);
+                        prioritizedIndex.put(image);
+                    }
+                }
+            }
+        });
+        id = log.firstNewId();
+        historyManager.getHistory().forEach(task -> historyManager.remove(task.getId()));
+        log.history().forEach(historyManager::addHistory);
+    }
+
+    private void beforeChange(int taskId) {
+        if (undoLog != null) {
+            undoLog.save(taskId, byId.get(taskId));
+        }
+    }
+
+    private <T extends Task> List<T> exposed(List<T> result) {
+        if (undoLog != null) {
+            result.forEach(task -> beforeChange(task.getId()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getByStatus(Status status) {
+        List<Task> result = new ArrayList<>();
+        for (Type type : Type.values()) {
+            collect(statusIndex.ids(type, status), result);
+        }
+        result.sort(Comparator.comparingInt(Task::getId));
+        return exposed(result);
+    }
+
+    @Override
+    public List<Task> getByStatus(Type type, Status status) {
+        int[] ids = statusIndex.ids(type, status);
+        Arrays.sort(ids);
+        return exposed(collect(ids, new ArrayList<>(ids.length)));
+    }
+
+    private List<Task> collect(int[] ids, List<Task> result) {
+        for (int taskId : ids) {
+            result.add(byId.get(taskId));
+        }
+        return result;
+    }
+
+    protected void register(Task task) {
+        byId.put(task.getId(), task);
+        statusIndex.put(task);
+    }
+
+    protected void unregister(int taskId) {
+        byId.remove(taskId);
+        statusIndex.remove(taskId);
+    }
+
     public void checkStatus(Epic epic) {
-        boolean isNew = epic.getSubTaskEpicsId().stream()
-                .map(id -> subTasks.get(id).getStatus())
-                .anyMatch(status -> status == Status.NEW);
-
-        boolean isInProgress = epic.getSubTaskEpicsId().stream()
-                .map(id -> subTasks.get(id).getStatus())
-                .anyMatch(status -> status == Status.IN_PROGRESS);
-
-        boolean isDone = epic.getSubTaskEpicsId().stream()
-                .map(id -> subTasks.get(id).getStatus())
-                .anyMatch(status -> status == Status.DONE);
-
-        if (isDone && !isInProgress && !isNew) {
-            epic.setStatus(Status.DONE);
-        } else if (isInProgress || isDone) {
-            epic.setStatus(Status.IN_PROGRESS);
-        } else {
-            epic.setStatus(Status.NEW);
+        epic.setStatus(epic.rollupStatus());
+        if (byId.get(epic.getId()) == epic) {
+            statusIndex.put(epic);
         }
     }
 
@@ -14,6 +14,18 @@ public class Managers {
         return new InMemoryHistoryManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getCommandLoop() {
+        return CommandLoopTaskManager.create();
+    }
+
+    public static TaskManager getSnapshot() {
+        return new SnapshotTaskManager();
+    }
+
     public static TaskManager getDefaultFileBacked() {
         return new FileBackedTaskManager(new File("resources\\fileManager.csv"));
     }
@@ -0,0 +1,114 @@
+package service.managers;
+
+import model.enums.Status;
+import model.tasks.SubTaskRollup;
+import util.IntSet;
+import util.PersistentIntSet;
+import util.PersistentSortedMap;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неизменяемая сводка эпика для {@link SnapshotTaskManager}. Каждое изменение возвращает новую сводку, которая
+ * делит с прежней все незатронутые узлы, поэтому копия эпика в снимке стоит O(1), а изменение - O(log k).
+ * Изменяемые менеджеры пользуются сводкой самого эпика на хеш-таблицах.
+ */
+final class PersistentRollup implements SubTaskRollup {
+    static final PersistentRollup EMPTY = new PersistentRollup(PersistentIntSet.empty(), PersistentSortedMap.empty(),
+            new int[Status.values().length], PersistentSortedMap.empty(), PersistentSortedMap.empty());
+    private final PersistentIntSet ids;
+    private final PersistentSortedMap<Integer, Tracked> tracked;
+    private final int[] counts;
+    private final PersistentSortedMap<LocalDateTime, Integer> starts;
+    private final PersistentSortedMap<LocalDateTime, Integer> ends;
+
+    private PersistentRollup(PersistentIntSet ids, PersistentSortedMap<Integer, Tracked> tracked, int[] counts,
+                             PersistentSortedMap<LocalDateTime, Integer> starts,
+                             PersistentSortedMap<LocalDateTime, Integer> ends) {
+        this.ids = ids;
+        this.tracked = tracked;
+        this.counts = counts;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    @Override
+    public IntSet ids() {
+        return ids;
+    }
+
+    @Override
+    public int count(Status status) {
+        return counts[status.ordinal()];
+    }
+
+    @Override
+    public LocalDateTime start() {
+        return starts.firstKey();
+    }
+
+    @Override
+    public LocalDateTime end() {
+        return ends.lastKey();
+    }
+
+    @Override
+    public PersistentRollup track(int subTaskId, Status status, LocalDateTime start, LocalDateTime end) {
+        PersistentRollup rollup = untrack(subTaskId);
+        int[] counts = rollup.counts.clone();
+        counts[status.ordinal()]++;
+        PersistentSortedMap<LocalDateTime, Integer> starts = rollup.starts;
+        PersistentSortedMap<LocalDateTime, Integer> ends = rollup.ends;
+        if (end != null) {
+            starts = add(starts, start);
+            ends = add(ends, end);
+        }
+        return new PersistentRollup(rollup.ids.add(subTaskId),
+                rollup.tracked.put(subTaskId, new Tracked(status, start, end)), counts, starts, ends);
+    }
+
+    @Override
+    public PersistentRollup untrack(int subTaskId) {
+        Tracked previous = tracked.get(subTaskId);
+        if (previous == null) {
+            return this;
+        }
+        int[] counts = this.counts.clone();
+        counts[previous.status().ordinal()]--;
+        PersistentSortedMap<LocalDateTime, Integer> starts = this.starts;
+        PersistentSortedMap<LocalDateTime, Integer> ends = this.ends;
+        if (previous.end() != null) {
+            starts = remove(starts, previous.start());
+            ends = remove(ends, previous.end());
+        }
+        return new PersistentRollup(ids.remove(subTaskId), tracked.remove(subTaskId), counts, starts, ends);
+    }
+
+    @Override
+    public PersistentRollup cleared() {
+        return EMPTY;
+    }
+
+    @Override
+    public PersistentRollup copy() {
+        return this;
+    }
+
+    private static PersistentSortedMap<LocalDateTime, Integer> add(PersistentSortedMap<LocalDateTime, Integer> times,
+                                                                   LocalDateTime time) {
+        Integer count = times.get(time);
+        return times.put(time, count == null ? 1 : count + 1);
+    }
+
+    private static PersistentSortedMap<LocalDateTime, Integer> remove(PersistentSortedMap<LocalDateTime, Integer> times,
+                                                                      LocalDateTime time) {
+        Integer count = times.get(time);
+        if (count == null) {
+            return times;
+        }
+        return count == 1 ? times.remove(time) : times.put(time, count - 1);
+    }
+
+    private record Tracked(Status status, LocalDateTime start, LocalDateTime end) {
+    }
+}
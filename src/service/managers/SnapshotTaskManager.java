@@ -0,0 +1,447 @@
+package service.managers;
+
+import exception.TaskNotFoundException;
+import exception.TimeOverlapException;
+import model.enums.Type;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import service.index.PersistentPrioritizedIndex;
+import service.interfaces.HistoryManager;
+import service.interfaces.TaskManager;
+import util.IntHashSet;
+import util.PersistentSortedMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Менеджер задач со снимками состояния. Всё состояние лежит в неизменяемых деревьях и публикуется одной
+ * ссылкой: читатели берут текущий снимок без блокировок и получают согласованные представления без копирования,
+ * писатели по очереди строят новый снимок, копируя только путь к изменённым узлам. Эпик перед изменением
+ * копируется за O(1): эпики снимка хранят сводку по подзадачам в {@link PersistentRollup}, которая делится
+ * с прежней версией, так что изменение эпика стоит O(log k), а опубликованные объекты больше не меняются.
+ * История не входит в снимок и защищена собственным монитором, так как каждое чтение по id в неё пишет. Транзакция собирает изменения в отдельном
+ * снимке, видимом только её потоку, и публикует его целиком при успешном завершении. Чтение внутри транзакции
+ * отдаёт копию, занесённую в её снимок, поэтому правки по полученной ссылке откатываются вместе с ней.
+ */
+public class SnapshotTaskManager implements TaskManager {
+    private final AtomicReference<State> state = new AtomicReference<>(State.EMPTY);
+    private final Object writeLock = new Object();
+    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    private int id = 1;
+    private State transaction;
+    private IntHashSet owned;
+    private volatile Thread transactionOwner;
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return own(current().prioritized().values());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return own(current().prioritized().range(from, to));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return own(current().prioritized().range(from, to, limit));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return current().prioritized().findFreeSlot(duration, notBefore, notAfter);
+    }
+
+    @Override
+    public List<Task> nextScheduled(LocalDateTime after, int limit) {
+        return own(current().prioritized().after(after, limit));
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return own(current().tasks().values());
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return own(current().epics().values());
+    }
+
+    @Override
+    public List<SubTask> getAllSubTask() {
+        return own(current().subTasks().values());
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        synchronized (writeLock) {
+            State current = current();
+            PersistentSortedMap<Integer, Task> byId = current.byId();
+            PersistentPrioritizedIndex prioritized = current.prioritized();
+            for (Task task : current.tasks().values()) {
+                byId = byId.remove(task.getId());
+                prioritized = prioritized.remove(task.getId());
+                forget(task.getId());
+            }
+            publish(new State(PersistentSortedMap.empty(), current.epics(), current.subTasks(), byId, prioritized));
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        synchronized (writeLock) {
+            State current = current();
+            PersistentSortedMap<Integer, Task> byId = current.byId();
+            PersistentPrioritizedIndex prioritized = current.prioritized();
+            for (SubTask subTask : current.subTasks().values()) {
+                byId = byId.remove(subTask.getId());
+                prioritized = prioritized.remove(subTask.getId());
+                forget(subTask.getId());
+            }
+            for (Epic epic : current.epics().values()) {
+                byId = byId.remove(epic.getId());
+                forget(epic.getId());
+            }
+            publish(new State(current.tasks(), PersistentSortedMap.empty(), PersistentSortedMap.empty(), byId,
+                    prioritized));
+        }
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        synchronized (writeLock) {
+            State current = current();
+            PersistentSortedMap<Integer, Task> byId = current.byId();
+            PersistentPrioritizedIndex prioritized = current.prioritized();
+            for (SubTask subTask : current.subTasks().values()) {
+                byId = byId.remove(subTask.getId());
+                prioritized = prioritized.remove(subTask.getId());
+                forget(subTask.getId());
+            }
+            PersistentSortedMap<Integer, Epic> epics = current.epics();
+            for (Epic epic : current.epics().values()) {
+                Epic copy = epic.copy();
+                copy.clearTrackedSubTasks();
+                copy.setStatus(copy.rollupStatus());
+                epics = epics.put(copy.getId(), copy);
+                byId = byId.put(copy.getId(), copy);
+            }
+            publish(new State(current.tasks(), epics, PersistentSortedMap.empty(), byId, prioritized));
+        }
+    }
+
+    @Override
+    public Task getById(int id) {
+        Task task = own(current().byId().get(id));
+        remember(task);
+        return task;
+    }
+
+    @Override
+    public Task getByIdTasks(int id) {
+        return getById(id, Type.TASK);
+    }
+
+    @Override
+    public Epic getByIdEpics(int id) {
+        return (Epic) getById(id, Type.EPIC);
+    }
+
+    @Override
+    public SubTask getByIdSubTasks(int id) {
+        return (SubTask) getById(id, Type.SUBTASK);
+    }
+
+    private Task getById(int id, Type type) {
+        Task task = current().byId().get(id);
+        if (task == null || task.getType() != type) {
+            return null;
+        }
+        task = own(task);
+        remember(task);
+        return task;
+    }
+
+    @Override
+    public void createTask(Task task) {
+        synchronized (writeLock) {
+            State current = current();
+            task.setId(id++);
+            PersistentPrioritizedIndex prioritized = schedule(current, task, "Найдено пересечение по времени.");
+            publish(new State(current.tasks().put(task.getId(), task), current.epics(), current.subTasks(),
+                    current.byId().put(task.getId(), task), prioritized));
+        }
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        synchronized (writeLock) {
+            State current = current();
+            epic.setId(id++);
+            epic.setRollup(PersistentRollup.EMPTY);
+            publish(new State(current.tasks(), current.epics().put(epic.getId(), epic), current.subTasks(),
+                    current.byId().put(epic.getId(), epic), current.prioritized()));
+        }
+    }
+
+    @Override
+    public void createSubtask(SubTask subTask) {
+        synchronized (writeLock) {
+            State current = current();
+            subTask.setId(id++);
+            Epic previous = current.epics().get(subTask.getIdEpic());
+            if (previous == null) {
+                throw new TaskNotFoundException("Эпика с ID - " + subTask.getIdEpic() + " не существует.");
+            }
+            PersistentPrioritizedIndex prioritized = schedule(current, subTask,
+                    "Добавление невозможно, найдено пересечение по времени.");
+            Epic epic = previous.copy();
+            epic.trackSubTask(subTask);
+            epic.setStatus(epic.rollupStatus());
+            publish(new State(current.tasks(), current.epics().put(epic.getId(), epic),
+                    current.subTasks().put(subTask.getId(), subTask),
+                    current.byId().put(subTask.getId(), subTask).put(epic.getId(), epic), prioritized));
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        synchronized (writeLock) {
+            State current = current();
+            if (!current.tasks().containsKey(task.getId())) {
+                throw new TaskNotFoundException(" ID - " + task.getId() + ", в Задачах отсутствует");
+            }
+            PersistentPrioritizedIndex prioritized = schedule(current, task,
+                    "Обновление невозможно, пересечение по времени.");
+            publish(new State(current.tasks().put(task.getId(), task), current.epics(), current.subTasks(),
+                    current.byId().put(task.getId(), task), prioritized));
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        synchronized (writeLock) {
+            State current = current();
+            Epic previous = current.epics().get(epic.getId());
+            if (previous == null) {
+                throw new TaskNotFoundException(" ID - " + epic.getId() + ", в Эпиках отсутствует.");
+            }
+            epic.inheritSubTasks(previous);
+            epic.setStatus(epic.rollupStatus());
+            publish(new State(current.tasks(), current.epics().put(epic.getId(), epic), current.subTasks(),
+                    current.byId().put(epic.getId(), epic), current.prioritized()));
+        }
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        synchronized (writeLock) {
+            State current = current();
+            SubTask previous = current.subTasks().get(subTask.getId());
+            if (previous == null) {
+                throw new TaskNotFoundException(" ID - " + subTask.getId() + ", в Задачах отсутствует");
+            }
+            Epic target = current.epics().get(subTask.getIdEpic());
+            if (target == null) {
+                throw new TaskNotFoundException("Эпика с ID - " + subTask.getIdEpic() + " не существует.");
+            }
+            PersistentPrioritizedIndex prioritized = schedule(current, subTask, "Найдено пересечение по времени.");
+            PersistentSortedMap<Integer, Epic> epics = current.epics();
+            PersistentSortedMap<Integer, Task> byId = current.byId().put(subTask.getId(), subTask);
+            Epic epic = target.copy();
+            if (previous.getIdEpic() != epic.getId()) {
+                Epic previousEpic = current.epics().get(previous.getIdEpic()).copy();
+                previousEpic.untrackSubTask(subTask.getId());
+                previousEpic.setStatus(previousEpic.rollupStatus());
+                epics = epics.put(previousEpic.getId(), previousEpic);
+                byId = byId.put(previousEpic.getId(), previousEpic);
+            }
+            epic.trackSubTask(subTask);
+            epic.setStatus(epic.rollupStatus());
+            publish(new State(current.tasks(), epics.put(epic.getId(), epic),
+                    current.subTasks().put(subTask.getId(), subTask), byId.put(epic.getId(), epic), prioritized));
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        synchronized (writeLock) {
+            State current = current();
+            if (!current.tasks().containsKey(id)) {
+                throw new TaskNotFoundException(" ID - " + id + ", в Задачах отсутствует.");
+            }
+            publish(new State(current.tasks().remove(id), current.epics(), current.subTasks(),
+                    current.byId().remove(id), current.prioritized().remove(id)));
+            forget(id);
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        synchronized (writeLock) {
+            State current = current();
+            Epic epic = current.epics().get(id);
+            if (epic == null) {
+                throw new TaskNotFoundException(" ID - " + id + ", в Эпиках отсутствует.");
+            }
+            PersistentSortedMap<Integer, SubTask> subTasks = current.subTasks();
+            PersistentSortedMap<Integer, Task> byId = current.byId().remove(id);
+            PersistentPrioritizedIndex prioritized = current.prioritized();
+            for (int subTaskId : epic.getSubTaskIds().toArray()) {
+                subTasks = subTasks.remove(subTaskId);
+                byId = byId.remove(subTaskId);
+                prioritized = prioritized.remove(subTaskId);
+            }
+            publish(new State(current.tasks(), current.epics().remove(id), subTasks, byId, prioritized));
+            forget(id);
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        synchronized (writeLock) {
+            State current = current();
+            SubTask subTask = current.subTasks().get(id);
+            if (subTask == null) {
+                throw new TaskNotFoundException(" ID - " + id + ", в Подзадачах отсутствует.");
+            }
+            Epic epic = current.epics().get(subTask.getIdEpic()).copy();
+            epic.untrackSubTask(id);
+            epic.setStatus(epic.rollupStatus());
+            publish(new State(current.tasks(), current.epics().put(epic.getId(), epic),
+                    current.subTasks().remove(id), current.byId().remove(id).put(epic.getId(), epic),
+                    current.prioritized().remove(id)));
+            forget(id);
+        }
+    }
+
+    @Override
+    public List<SubTask> getSubtasksForEpic(int idEpic) {
+        State current = current();
+        Epic epic = current.epics().get(idEpic);
+        if (epic == null) {
+            throw new TaskNotFoundException("Эпика с ID - " + idEpic + " не существует.");
+        }
+        int[] ids = epic.getSubTaskIds().toArray();
+        List<SubTask> result = new ArrayList<>(ids.length);
+        for (int subTaskId : ids) {
+            result.add(current.subTasks().get(subTaskId));
+        }
+        return own(result);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history;
+        synchronized (historyManager) {
+            history = new ArrayList<>(historyManager.getHistory());
+        }
+        return own(history);
+    }
+
+    @Override
+    public void inTransaction(Consumer<TaskManager> body) {
+        synchronized (writeLock) {
+            if (transaction != null) {
+                body.accept(this);
+                return;
+            }
+            int firstNewId = id;
+            List<Task> history = getHistory();
+            transaction = state.get();
+            owned = new IntHashSet();
+            transactionOwner = Thread.currentThread();
+            try {
+                body.accept(this);
+                state.set(transaction);
+            } catch (RuntimeException | Error exception) {
+                id = firstNewId;
+                synchronized (historyManager) {
+                    historyManager.getHistory().forEach(task -> historyManager.remove(task.getId()));
+                    history.forEach(historyManager::addHistory);
+                }
+                throw exception;
+            } finally {
+                transactionOwner = null;
+                transaction = null;
+                owned = null;
+            }
+        }
+    }
+
+    private State current() {
+        return transactionOwner == Thread.currentThread() ? transaction : state.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T own(T task) {
+        if (task == null || transactionOwner != Thread.currentThread() || !owned.add(task.getId())) {
+            return task;
+        }
+        T copy = (T) task.copy();
+        State current = transaction;
+        PersistentSortedMap<Integer, Task> byId = current.byId().put(copy.getId(), copy);
+        transaction = switch (copy.getType()) {
+            case TASK -> new State(current.tasks().put(copy.getId(), copy), current.epics(), current.subTasks(),
+                    byId, current.prioritized().put(copy));
+            case EPIC -> new State(current.tasks(), current.epics().put(copy.getId(), (Epic) copy),
+                    current.subTasks(), byId, current.prioritized());
+            case SUBTASK -> new State(current.tasks(), current.epics(),
+                    current.subTasks().put(copy.getId(), (SubTask) copy), byId, current.prioritized().put(copy));
+        };
+        return copy;
+    }
+
+    private <T extends Task> List<T> own(List<T> tasks) {
+        if (transactionOwner != Thread.currentThread()) {
+            return tasks;
+        }
+        List<T> result = new ArrayList<>(tasks.size());
+        for (T task : tasks) {
+            result.add(own(task));
+        }
+        return result;
+    }
+
+    private void publish(State next) {
+        if (transaction != null) {
+            transaction = next;
+        } else {
+            state.set(next);
+        }
+    }
+
+    private static PersistentPrioritizedIndex schedule(State current, Task task, String overlapMessage) {
+        if (current.prioritized().overlaps(task)) {
+            throw new TimeOverlapException(overlapMessage);
+        }
+        return current.prioritized().put(task);
+    }
+
+    private void remember(Task task) {
+        synchronized (historyManager) {
+            historyManager.addHistory(task);
+        }
+    }
+
+    private void forget(int id) {
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    private record State(PersistentSortedMap<Integer, Task> tasks,
+                         PersistentSortedMap<Integer, Epic> epics,
+                         PersistentSortedMap<Integer, SubTask> subTasks,
+                         PersistentSortedMap<Integer, Task> byId,
+                         PersistentPrioritizedIndex prioritized) {
+        private static final State EMPTY = new State(PersistentSortedMap.empty(), PersistentSortedMap.empty(),
+                PersistentSortedMap.empty(), PersistentSortedMap.empty(), PersistentPrioritizedIndex.empty());
+    }
+}
@@ -0,0 +1,63 @@
+package service.managers;
+
+import model.tasks.Task;
+import util.IntHashSet;
+import util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Журнал отката транзакции. Перед первым изменением или выдачей наружу задачи с id меньше первого
+ * выданного в транзакции сохраняется её копия, поэтому правки, сделанные через полученную ссылку,
+ * тоже откатываются. Задачи, созданные в транзакции, при откате просто удаляются.
+ */
+final class UndoLog {
+    private final int firstNewId;
+    private final List<Task> history;
+    private final IntHashSet touched = new IntHashSet();
+    private final IntObjectMap<Task> images = new IntObjectMap<>();
+
+    UndoLog(int firstNewId, List<Task> history) {
+        this.firstNewId = firstNewId;
+        this.history = history;
+    }
+
+    int firstNewId() {
+        return firstNewId;
+    }
+
+    void save(int taskId, Task current) {
+        if (taskId >= firstNewId || !touched.add(taskId)) {
+            return;
+        }
+        if (current != null) {
+            images.put(taskId, current.copy());
+        }
+    }
+
+    void rollback(int nextId, Target target) {
+        touched.forEach(target::discard);
+        for (int taskId = firstNewId; taskId < nextId; taskId++) {
+            target.discard(taskId);
+        }
+        for (Task image : images.values()) {
+            target.restore(image);
+        }
+    }
+
+    List<Task> history() {
+        List<Task> restored = new ArrayList<>(history.size());
+        for (Task task : history) {
+            Task image = images.get(task.getId());
+            restored.add(image != null ? image : task);
+        }
+        return restored;
+    }
+
+    interface Target {
+        void discard(int taskId);
+
+        void restore(Task image);
+    }
+}
@@ -0,0 +1,308 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+import model.enums.Status;
+import model.enums.Type;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Бинарный снимок доски: заголовок, записи фиксированной длины, отсортированные по id,
+ * и куча строк с названиями и описаниями. Файл читается через {@link MappedByteBuffer},
+ * задачи создаются только при обращении к конкретной записи. С версии 2 последнее поле записи -
+ * CRC32C самой записи и её строк. {@link service.managers.FileBackedTaskManager} при загрузке всё равно
+ * читает все записи: индексам по времени и статусу и сводкам эпиков задачи нужны сразу, а держать
+ * отображение открытым нельзя, потому что следующее сохранение перезаписывает тот же файл.
+ */
+public class BinarySnapshot implements Closeable {
+    public static final int MAGIC = 0x4B42534E;
+    public static final short VERSION = 2;
+    private static final short CHECKSUM_VERSION = 2;
+    static final int HEADER_SIZE = 24;
+    static final int RECORD_SIZE = 48;
+    private static final int CHECKSUM_OFFSET = 44;
+    private static final int NO_STRING = -1;
+    private static final byte HAS_TIME = 1;
+    private static final Type[] TYPES = Type.values();
+    private static final Status[] STATUSES = Status.values();
+    private final File file;
+    private MappedByteBuffer buffer;
+    private final int size;
+    private final int heapOffset;
+    private final short version;
+
+    private BinarySnapshot(File file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new ManagerSaveException("Файл не является бинарным снимком: " + file);
+        }
+        version = buffer.getShort(4);
+        if (version > VERSION) {
+            throw new ManagerSaveException("Неподдерживаемая версия бинарного снимка: " + version);
+        }
+        size = buffer.getInt(8);
+        long heap = buffer.getLong(12);
+        if (size < 0 || heap != HEADER_SIZE + (long) size * RECORD_SIZE || heap > buffer.capacity()) {
+            throw new ManagerSaveException("Повреждённый бинарный снимок: " + file);
+        }
+        heapOffset = (int) heap;
+    }
+
+    public static boolean isBinary(File file) {
+        if (file.length() < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                continue;
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения снимка.");
+        }
+    }
+
+    public static BinarySnapshot open(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new BinarySnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения снимка.");
+        }
+    }
+
+    public static void write(File target, Collection<? extends Task> tasks, boolean force) {
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer snapshot = ByteBuffer.wrap(encode(tasks));
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка сохранения.");
+        }
+    }
+
+    public static byte[] encode(Collection<? extends Task> tasks) {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparingInt(Task::getId));
+
+        ByteBuffer records = ByteBuffer.allocate(HEADER_SIZE + sorted.size() * RECORD_SIZE);
+        ByteArrayOutputStream heap = new ByteArrayOutputStream();
+        records.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(sorted.size())
+                .putLong(records.capacity()).putInt(0);
+
+        CRC32C checksum = new CRC32C();
+        for (Task task : sorted) {
+            LocalDateTime startTime = task.getStartTime();
+            Duration duration = task.getDuration();
+            boolean hasTime = startTime != null && duration != null;
+            byte[] name = bytes(task.getName());
+            byte[] description = task.getType() == Type.EPIC ? null : bytes(task.getDescription());
+            int position = records.position();
+            records.putInt(task.getId())
+                    .put((byte) task.getType().ordinal())
+                    .put((byte) task.getStatus().ordinal())
+                    .put(hasTime ? HAS_TIME : 0)
+                    .put((byte) 0)
+                    .putInt(task.getType() == Type.SUBTASK ? ((SubTask) task).getIdEpic() : 0)
+                    .putLong(hasTime ? startTime.toEpochSecond(ZoneOffset.UTC) : 0)
+                    .putInt(hasTime ? startTime.getNano() : 0)
+                    .putLong(hasTime ? duration.getSeconds() : 0)
+                    .putInt(hasTime ? duration.getNano() : 0)
+                    .putInt(putString(heap, name, records.capacity()))
+                    .putInt(putString(heap, description, records.capacity()));
+
+            checksum.reset();
+            checksum.update(records.array(), position, CHECKSUM_OFFSET);
+            if (name != null) {
+                checksum.update(name);
+            }
+            if (description != null) {
+                checksum.update(description);
+            }
+            records.putInt((int) checksum.getValue());
+        }
+        byte[] snapshot = new byte[records.capacity() + heap.size()];
+        System.arraycopy(records.array(), 0, snapshot, 0, records.capacity());
+        System.arraycopy(heap.toByteArray(), 0, snapshot, records.capacity(), heap.size());
+        return snapshot;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int putString(ByteArrayOutputStream heap, byte[] value, int heapOffset) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        long offset = (long) heapOffset + heap.size();
+        if (offset > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Бинарный снимок превышает допустимый размер.");
+        }
+        heap.write(value.length >>> 24);
+        heap.write(value.length >>> 16);
+        heap.write(value.length >>> 8);
+        heap.write(value.length);
+        heap.write(value, 0, value.length);
+        return (int) offset;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int index) {
+        return buffer().getInt(position(index));
+    }
+
+    public Type getType(int index) {
+        return TYPES[buffer().get(position(index) + 4)];
+    }
+
+    public int indexOf(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int current = getId(middle);
+            if (current < id) {
+                low = middle + 1;
+            } else if (current > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    public Task find(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return null;
+        }
+        if (!verify(index)) {
+            throw new ManagerSaveException("Повреждена запись " + id + " бинарного снимка: " + file);
+        }
+        return read(index);
+    }
+
+    public boolean verify(int index) {
+        MappedByteBuffer buffer = buffer();
+        int position = position(index);
+        if (version < CHECKSUM_VERSION) {
+            return true;
+        }
+        try {
+            int type = buffer.get(position + 4);
+            int status = buffer.get(position + 5);
+            if (type < 0 || type >= TYPES.length || status < 0 || status >= STATUSES.length) {
+                return false;
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.slice(position, CHECKSUM_OFFSET));
+            for (int offset : new int[]{buffer.getInt(position + 36), buffer.getInt(position + 40)}) {
+                if (offset != NO_STRING) {
+                    checkString(offset);
+                    checksum.update(buffer.slice(offset + Integer.BYTES, buffer.getInt(offset)));
+                }
+            }
+            return (int) checksum.getValue() == buffer.getInt(position + CHECKSUM_OFFSET);
+        } catch (ManagerSaveException exception) {
+            return false;
+        }
+    }
+
+    public Task read(int index) {
+        MappedByteBuffer buffer = buffer();
+        int position = position(index);
+        int id = buffer.getInt(position);
+        Type type = TYPES[buffer.get(position + 4)];
+        Status status = STATUSES[buffer.get(position + 5)];
+        boolean hasTime = (buffer.get(position + 6) & HAS_TIME) != 0;
+        int idEpic = buffer.getInt(position + 8);
+        LocalDateTime startTime = hasTime
+                ? LocalDateTime.ofEpochSecond(buffer.getLong(position + 12), buffer.getInt(position + 20), ZoneOffset.UTC)
+                : null;
+        Duration duration = hasTime ? Duration.ofSeconds(buffer.getLong(position + 24), buffer.getInt(position + 32))
+                : null;
+        String name = readString(buffer.getInt(position + 36));
+
+        return switch (type) {
+            case TASK -> new Task(id, name, status, readString(buffer.getInt(position + 40)), startTime, duration);
+            case EPIC -> new Epic(id, name, status);
+            case SUBTASK -> new SubTask(id, name, status, readString(buffer.getInt(position + 40)), idEpic,
+                    startTime, duration);
+        };
+    }
+
+    private String readString(int offset) {
+        if (offset == NO_STRING) {
+            return null;
+        }
+        MappedByteBuffer buffer = buffer();
+        checkString(offset);
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkString(int offset) {
+        MappedByteBuffer buffer = buffer();
+        if (offset < heapOffset || offset > buffer.capacity() - Integer.BYTES) {
+            throw new ManagerSaveException("Повреждённый бинарный снимок: " + file);
+        }
+        int length = buffer.getInt(offset);
+        if (length < 0 || length > buffer.capacity() - offset - Integer.BYTES) {
+            throw new ManagerSaveException("Повреждённый бинарный снимок: " + file);
+        }
+    }
+
+    private int position(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Нет записи с индексом " + index);
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private MappedByteBuffer buffer() {
+        if (buffer == null) {
+            throw new IllegalStateException("Бинарный снимок закрыт.");
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+}
@@ -0,0 +1,271 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+import model.tasks.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Снимок из независимо сжатых блоков CSV-строк, отсортированных по id. Индекс в конце файла хранит
+ * диапазон id, смещение и CRC32C каждого блока, поэтому одна задача читается распаковкой одного блока.
+ */
+public class CompressedSnapshot implements Closeable {
+    public static final int MAGIC = 0x4B42535A;
+    public static final short VERSION = 1;
+    public static final int DEFAULT_BLOCK_RECORDS = 512;
+    static final int HEADER_SIZE = 24;
+    private static final int INDEX_ENTRY_SIZE = 28;
+    private final File file;
+    private final FileChannel channel;
+    private final int[] firstIds;
+    private final int[] lastIds;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] rawLengths;
+    private final int[] checksums;
+
+    private CompressedSnapshot(File file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        ByteBuffer header = readFully(0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw new ManagerSaveException("Файл не является сжатым снимком: " + file);
+        }
+        short version = header.getShort(4);
+        if (version > VERSION) {
+            throw new ManagerSaveException("Неподдерживаемая версия сжатого снимка: " + version);
+        }
+        int blocks = header.getInt(8);
+        long indexOffset = header.getLong(12);
+        if (blocks < 0 || indexOffset < HEADER_SIZE
+                || indexOffset + (long) blocks * INDEX_ENTRY_SIZE != channel.size()) {
+            throw new ManagerSaveException("Повреждённый сжатый снимок: " + file);
+        }
+
+        ByteBuffer index = readFully(indexOffset, blocks * INDEX_ENTRY_SIZE);
+        firstIds = new int[blocks];
+        lastIds = new int[blocks];
+        offsets = new long[blocks];
+        compressedLengths = new int[blocks];
+        rawLengths = new int[blocks];
+        checksums = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            firstIds[i] = index.getInt();
+            lastIds[i] = index.getInt();
+            offsets[i] = index.getLong();
+            compressedLengths[i] = index.getInt();
+            rawLengths[i] = index.getInt();
+            checksums[i] = index.getInt();
+            if (offsets[i] < HEADER_SIZE || compressedLengths[i] < 0 || rawLengths[i] < 0
+                    || offsets[i] + compressedLengths[i] > indexOffset) {
+                throw new ManagerSaveException("Повреждённый индекс сжатого снимка: " + file);
+            }
+        }
+    }
+
+    public static boolean isCompressed(File file) {
+        if (file.length() < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                continue;
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения снимка.");
+        }
+    }
+
+    public static CompressedSnapshot open(File file) {
+        try {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                return new CompressedSnapshot(file, channel);
+            } catch (IOException | RuntimeException exception) {
+                channel.close();
+                throw exception;
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения снимка.");
+        }
+    }
+
+    public static byte[] encode(Collection<? extends Task> tasks) {
+        return encode(tasks, DEFAULT_BLOCK_RECORDS, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public static byte[] encode(Collection<? extends Task> tasks, int blockRecords, int level) {
+        if (blockRecords <= 0) {
+            throw new IllegalArgumentException("Размер блока должен быть положительным.");
+        }
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparingInt(Task::getId));
+        int blocks = (sorted.size() + blockRecords - 1) / blockRecords;
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ByteBuffer index = ByteBuffer.allocate(blocks * INDEX_ENTRY_SIZE);
+        Deflater deflater = new Deflater(level);
+        CRC32C checksum = new CRC32C();
+        byte[] buffer = new byte[1 << 16];
+        try {
+            for (int from = 0; from < sorted.size(); from += blockRecords) {
+                List<Task> block = sorted.subList(from, Math.min(from + blockRecords, sorted.size()));
+                StringBuilder builder = new StringBuilder();
+                for (Task task : block) {
+                    builder.append(TaskCsvParser.format(task)).append('\n');
+                }
+                byte[] raw = builder.toString().getBytes(StandardCharsets.UTF_8);
+                checksum.reset();
+                checksum.update(raw);
+
+                int offset = HEADER_SIZE + data.size();
+                deflater.reset();
+                deflater.setInput(raw);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    data.write(buffer, 0, deflater.deflate(buffer));
+                }
+                index.putInt(block.get(0).getId())
+                        .putInt(block.get(block.size() - 1).getId())
+                        .putLong(offset)
+                        .putInt(HEADER_SIZE + data.size() - offset)
+                        .putInt(raw.length)
+                        .putInt((int) checksum.getValue());
+            }
+        } finally {
+            deflater.end();
+        }
+
+        ByteBuffer snapshot = ByteBuffer.allocate(HEADER_SIZE + data.size() + index.capacity());
+        snapshot.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(blocks)
+                .putLong(HEADER_SIZE + data.size()).putInt(0);
+        snapshot.put(data.toByteArray()).put(index.array());
+        return snapshot.array();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int blocks() {
+        return firstIds.length;
+    }
+
+    public long getRawSize() {
+        long size = 0;
+        for (int rawLength : rawLengths) {
+            size += rawLength;
+        }
+        return size;
+    }
+
+    public List<Task> readBlock(int block) {
+        if (block < 0 || block >= blocks()) {
+            throw new IndexOutOfBoundsException("Нет блока с индексом " + block);
+        }
+        byte[] raw = new byte[rawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            ByteBuffer compressed = readFully(offsets[block], compressedLengths[block]);
+            inflater.setInput(compressed.array());
+            int inflated = 0;
+            while (inflated < raw.length && !inflater.finished()) {
+                int count = inflater.inflate(raw, inflated, raw.length - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != raw.length) {
+                throw damaged(block);
+            }
+        } catch (IOException | DataFormatException exception) {
+            throw damaged(block);
+        } finally {
+            inflater.end();
+        }
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(raw);
+        if ((int) checksum.getValue() != checksums[block]) {
+            throw damaged(block);
+        }
+
+        TaskCsvParser parser = new TaskCsvParser();
+        List<Task> tasks = new ArrayList<>();
+        String text = new String(raw, StandardCharsets.UTF_8);
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            if (end > start) {
+                tasks.add(parser.parse(text.substring(start, end)));
+            }
+            start = end + 1;
+        }
+        return tasks;
+    }
+
+    public Task find(int id) {
+        int low = 0;
+        int high = blocks() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (lastIds[middle] < id) {
+                low = middle + 1;
+            } else if (firstIds[middle] > id) {
+                high = middle - 1;
+            } else {
+                for (Task task : readBlock(middle)) {
+                    if (task.getId() == id) {
+                        return task;
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ManagerSaveException("Неожиданный конец сжатого снимка: " + file);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private ManagerSaveException damaged(int block) {
+        return new ManagerSaveException("Повреждён блок " + block + " сжатого снимка: " + file);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка закрытия снимка.");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class JournalCompactor implements Closeable {
+    public static final long DEFAULT_MAX_JOURNAL_BYTES = 4 * 1024 * 1024;
+    public static final int DEFAULT_MAX_JOURNAL_RECORDS = 10_000;
+    private long maxJournalBytes = DEFAULT_MAX_JOURNAL_BYTES;
+    private int maxJournalRecords = DEFAULT_MAX_JOURNAL_RECORDS;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService executor;
+    private volatile Future<?> compaction;
+
+    public void setThresholds(long maxJournalBytes, int maxJournalRecords) {
+        if (maxJournalBytes <= 0 || maxJournalRecords <= 0) {
+            throw new IllegalArgumentException("Пороги сжатия журнала должны быть положительными.");
+        }
+        this.maxJournalBytes = maxJournalBytes;
+        this.maxJournalRecords = maxJournalRecords;
+    }
+
+    public boolean shouldCompact(TaskJournal journal) {
+        return journal.getRecords() >= maxJournalRecords || journal.getSize() >= maxJournalBytes;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public boolean submit(Runnable compaction) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            this.compaction = executor().submit(() -> {
+                try {
+                    compaction.run();
+                } finally {
+                    running.set(false);
+                }
+            });
+            return true;
+        } catch (RuntimeException exception) {
+            running.set(false);
+            throw exception;
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    public void await() {
+        Future<?> current = compaction;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Сжатие журнала прервано.");
+        } catch (ExecutionException exception) {
+            throw new ManagerSaveException("Ошибка сжатия журнала: " + exception.getCause().getMessage());
+        } finally {
+            if (current.isDone()) {
+                compaction = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            await();
+        } finally {
+            synchronized (this) {
+                if (executor != null) {
+                    executor.shutdown();
+                    executor = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+import model.tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class ParallelTaskLoader {
+    public static final long DEFAULT_MIN_CHUNK_BYTES = 1 << 20;
+    public static final int DEFAULT_MIN_CHUNK_RECORDS = 1 << 14;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int SCAN_BUFFER_SIZE = 1 << 12;
+    private final ForkJoinPool pool;
+    private long minChunkBytes = DEFAULT_MIN_CHUNK_BYTES;
+    private int minChunkRecords = DEFAULT_MIN_CHUNK_RECORDS;
+
+    public ParallelTaskLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelTaskLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void setMinChunk(long minChunkBytes, int minChunkRecords) {
+        if (minChunkBytes <= 0 || minChunkRecords <= 0) {
+            throw new IllegalArgumentException("Размер части файла должен быть положительным.");
+        }
+        this.minChunkBytes = minChunkBytes;
+        this.minChunkRecords = minChunkRecords;
+    }
+
+    public List<Task> load(File file) {
+        if (BinarySnapshot.isBinary(file)) {
+            return loadBinary(file);
+        }
+        if (CompressedSnapshot.isCompressed(file)) {
+            return loadCompressed(file);
+        }
+        return loadCsv(file);
+    }
+
+    public List<Task> load(List<File> files) {
+        List<ForkJoinTask<Chunk>> parts = new ArrayList<>(files.size());
+        for (File file : files) {
+            parts.add(pool.submit(() -> new Chunk(load(file), null)));
+        }
+        return merge(parts);
+    }
+
+    private List<Task> loadCsv(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = chunks(size, minChunkBytes);
+            long[] bounds = new long[chunks + 1];
+            bounds[chunks] = size;
+            for (int i = 1; i < chunks; i++) {
+                bounds[i] = nextLine(channel, Math.max(bounds[i - 1], size / chunks * i), size);
+            }
+
+            List<ForkJoinTask<Chunk>> parts = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                long from = bounds[i];
+                long to = bounds[i + 1];
+                parts.add(pool.submit(() -> parseChunk(file, channel, from, to)));
+            }
+            return merge(parts);
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения снимка.");
+        }
+    }
+
+    private List<Task> loadBinary(File file) {
+        try (BinarySnapshot snapshot = BinarySnapshot.open(file)) {
+            int size = snapshot.size();
+            int chunks = chunks(size, minChunkRecords);
+            List<ForkJoinTask<Chunk>> parts = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                int from = (int) ((long) size * i / chunks);
+                int to = (int) ((long) size * (i + 1) / chunks);
+                parts.add(pool.submit(() -> {
+                    List<Task> part = new ArrayList<>(to - from);
+                    for (int index = from; index < to; index++) {
+                        if (!snapshot.verify(index)) {
+                            return new Chunk(part, "повреждена запись " + index + " файла " + file);
+                        }
+                        part.add(snapshot.read(index));
+                    }
+                    return new Chunk(part, null);
+                }));
+            }
+            return merge(parts);
+        }
+    }
+
+    private List<Task> loadCompressed(File file) {
+        try (CompressedSnapshot snapshot = CompressedSnapshot.open(file)) {
+            List<ForkJoinTask<Chunk>> parts = new ArrayList<>(snapshot.blocks());
+            for (int i = 0; i < snapshot.blocks(); i++) {
+                int block = i;
+                parts.add(pool.submit(() -> {
+                    try {
+                        return new Chunk(snapshot.readBlock(block), null);
+                    } catch (RuntimeException exception) {
+                        return new Chunk(List.of(), exception.getMessage());
+                    }
+                }));
+            }
+            return merge(parts);
+        }
+    }
+
+    private int chunks(long size, long minChunk) {
+        long byParallelism = (long) pool.getParallelism() * CHUNKS_PER_THREAD;
+        return (int) Math.max(1, Math.min(byParallelism, size / minChunk));
+    }
+
+    private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static Chunk parseChunk(File file, FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) {
+                break;
+            }
+        }
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+
+        TaskCsvParser parser = new TaskCsvParser();
+        List<Task> part = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            int lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            boolean header = lineEnd - start == TaskCsvParser.HEADER.length()
+                    && text.startsWith(TaskCsvParser.HEADER, start);
+            if (lineEnd > start && !header) {
+                String line = text.substring(start, lineEnd);
+                try {
+                    part.add(parser.parse(line));
+                } catch (RuntimeException exception) {
+                    return new Chunk(part, "некорректная строка файла " + file + ": " + line);
+                }
+            }
+            start = end + 1;
+        }
+        return new Chunk(part, null);
+    }
+
+    private static List<Task> merge(List<ForkJoinTask<Chunk>> parts) {
+        List<Chunk> results = new ArrayList<>(parts.size());
+        int total = 0;
+        boolean damaged = false;
+        for (ForkJoinTask<Chunk> part : parts) {
+            // Части, идущие после повреждённой, всё равно дожидаемся: вызывающий закроет файл сразу после возврата.
+            if (damaged) {
+                part.quietlyJoin();
+                continue;
+            }
+            Chunk result = part.join();
+            results.add(result);
+            total += result.tasks().size();
+            if (result.damage() != null) {
+                System.out.println("Загрузка остановлена на первой повреждённой записи: " + result.damage());
+                damaged = true;
+            }
+        }
+        List<Task> merged = new ArrayList<>(total);
+        results.forEach(result -> merged.addAll(result.tasks()));
+        return merged;
+    }
+
+    private record Chunk(List<Task> tasks, String damage) {
+    }
+}
@@ -0,0 +1,137 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class SegmentStore {
+    public static final int DEFAULT_SEGMENT_SIZE = 1024;
+    private static final String DIRECTORY_EXTENSION = ".segments";
+    private static final String PREFIX = "segment-";
+    private static final String EXTENSION = ".dat";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String META = "segments.meta";
+    private final File directory;
+    private final int segmentSize;
+    private boolean metaWritten;
+
+    public SegmentStore(File directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SegmentStore(File directory, int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Размер сегмента должен быть положительным.");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    public static SegmentStore open(File directory) {
+        File meta = new File(directory, META);
+        if (!meta.exists()) {
+            return new SegmentStore(directory);
+        }
+        try {
+            SegmentStore store = new SegmentStore(directory, Integer.parseInt(Files.readString(meta.toPath()).trim()));
+            store.metaWritten = true;
+            return store;
+        } catch (IOException | NumberFormatException exception) {
+            throw new ManagerSaveException("Ошибка чтения параметров сегментов: " + meta);
+        }
+    }
+
+    public static File directoryFor(File file) {
+        return new File(file.getPath() + DIRECTORY_EXTENSION);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public boolean exists() {
+        return directory.isDirectory();
+    }
+
+    public int segmentOf(int id) {
+        return Math.floorDiv(id, segmentSize);
+    }
+
+    public int firstId(int segment) {
+        return segment * segmentSize;
+    }
+
+    public File fileOf(int segment) {
+        return new File(directory, PREFIX + segment + EXTENSION);
+    }
+
+    public List<Integer> segments() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(EXTENSION));
+        List<Integer> segments = new ArrayList<>();
+        if (files == null) {
+            return segments;
+        }
+        for (File segment : files) {
+            String name = segment.getName();
+            try {
+                segments.add(Integer.parseInt(name.substring(PREFIX.length(), name.length() - EXTENSION.length())));
+            } catch (NumberFormatException exception) {
+                continue;
+            }
+        }
+        segments.sort(Comparator.naturalOrder());
+        return segments;
+    }
+
+    public List<File> files() {
+        return segments().stream().map(this::fileOf).toList();
+    }
+
+    public void write(int segment, byte[] content, boolean force) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new ManagerSaveException("Ошибка создания каталога сегментов: " + directory);
+        }
+        if (!metaWritten) {
+            try {
+                Files.writeString(new File(directory, META).toPath(), String.valueOf(segmentSize));
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Ошибка записи параметров сегментов: " + directory);
+            }
+            metaWritten = true;
+        }
+        File target = fileOf(segment);
+        File temp = new File(directory, target.getName() + TEMP_EXTENSION);
+        try (FileOutputStream stream = new FileOutputStream(temp)) {
+            stream.write(content);
+            if (force) {
+                stream.getChannel().force(false);
+            }
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка записи сегмента " + segment + ".");
+        }
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка замены сегмента " + segment + ".");
+        }
+    }
+
+    public void delete(int segment) {
+        File target = fileOf(segment);
+        if (target.exists() && !target.delete()) {
+            throw new ManagerSaveException("Ошибка удаления сегмента " + segment + ".");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package service.storage;
+
+import model.enums.SnapshotFormat;
+import model.enums.StorageMode;
+import service.managers.FileBackedTaskManager;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public class SnapshotConverter {
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            String formats = Arrays.stream(SnapshotFormat.values()).map(Enum::name).collect(Collectors.joining("|"));
+            System.out.println("Использование: SnapshotConverter <" + formats + "> <исходный файл> <целевой файл>");
+            return;
+        }
+        convert(new File(args[1]), new File(args[2]), SnapshotFormat.valueOf(args[0].toUpperCase()));
+        System.out.println("Снимок " + args[1] + " сохранён в " + args[2] + " в формате " + args[0].toUpperCase());
+    }
+
+    public static void convert(File source, File target, SnapshotFormat format) {
+        try (FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(source, StorageMode.JOURNAL)) {
+            manager.exportSnapshot(target, format);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+import model.enums.Status;
+import model.enums.Type;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class TaskCsvParser {
+    public static final String HEADER = "id,type,name,status,description,epic,startTime,duration";
+    private static final int MAX_FIELDS = 8;
+    private static final long MAX_DURATION_NUMBER = 1_000_000_000_000L;
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+
+    public static String format(Task task) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(task.getId()).append(",")
+                .append(task.getType()).append(",")
+                .append(task.getName()).append(",")
+                .append(task.getStatus());
+
+        if (task.getType() == Type.TASK) {
+            builder.append(",").append(task.getDescription());
+        }
+
+        if (task.getType() == Type.SUBTASK) {
+            builder.append(",").append(task.getDescription()).append(",").append(((SubTask) task).getIdEpic());
+        }
+
+        if (task.getStartTime() != null) {
+            builder.append(",").append(task.getStartTime()).append(",").append(task.getDuration());
+        }
+        return builder.toString();
+    }
+
+    public Task parse(String line) {
+        int fields = scan(line);
+        if (fields < 4) {
+            throw malformed(line);
+        }
+        int id = parseInt(line, 0);
+        Type type = parseType(line, 1);
+        String name = line.substring(starts[2], ends[2]);
+        Status status = parseStatus(line, 3);
+
+        switch (type) {
+            case TASK -> {
+                String description = field(line, fields, 4);
+                if (fields >= 7) {
+                    return new Task(id, name, status, description, parseDateTime(line, 5), parseDuration(line, 6));
+                }
+                return new Task(id, name, status, description);
+            }
+            case EPIC -> {
+                return new Epic(id, name, status);
+            }
+            default -> {
+                if (fields < 6) {
+                    throw malformed(line);
+                }
+                String description = line.substring(starts[4], ends[4]);
+                int idEpic = parseInt(line, 5);
+                if (fields >= 8) {
+                    return new SubTask(id, name, status, description, idEpic, parseDateTime(line, 6),
+                            parseDuration(line, 7));
+                }
+                return new SubTask(id, name, status, description, idEpic);
+            }
+        }
+    }
+
+    private int scan(String line) {
+        int fields = 0;
+        int start = 0;
+        int length = line.length();
+        for (int i = 0; i < length && fields < MAX_FIELDS - 1; i++) {
+            if (line.charAt(i) == ',') {
+                starts[fields] = start;
+                ends[fields] = i;
+                fields++;
+                start = i + 1;
+            }
+        }
+        starts[fields] = start;
+        ends[fields] = length;
+        return fields + 1;
+    }
+
+    private String field(String line, int fields, int index) {
+        return index < fields ? line.substring(starts[index], ends[index]) : "";
+    }
+
+    private int parseInt(String line, int index) {
+        int from = starts[index];
+        int to = ends[index];
+        boolean negative = from < to && line.charAt(from) == '-';
+        if (negative) {
+            from++;
+        }
+        if (from == to || to - from > 10) {
+            throw malformed(line);
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed(line);
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw malformed(line);
+        }
+        return (int) value;
+    }
+
+    private Type parseType(String line, int index) {
+        if (matches(line, index, "TASK")) {
+            return Type.TASK;
+        }
+        if (matches(line, index, "SUBTASK")) {
+            return Type.SUBTASK;
+        }
+        if (matches(line, index, "EPIC")) {
+            return Type.EPIC;
+        }
+        throw malformed(line);
+    }
+
+    private Status parseStatus(String line, int index) {
+        if (matches(line, index, "NEW")) {
+            return Status.NEW;
+        }
+        if (matches(line, index, "IN_PROGRESS")) {
+            return Status.IN_PROGRESS;
+        }
+        if (matches(line, index, "DONE")) {
+            return Status.DONE;
+        }
+        throw malformed(line);
+    }
+
+    private boolean matches(String line, int index, String value) {
+        return ends[index] - starts[index] == value.length()
+                && line.regionMatches(starts[index], value, 0, value.length());
+    }
+
+    private LocalDateTime parseDateTime(String line, int index) {
+        int from = starts[index];
+        int length = ends[index] - from;
+        if ((length == 16 || length == 19)
+                && line.charAt(from + 4) == '-' && line.charAt(from + 7) == '-' && line.charAt(from + 10) == 'T'
+                && line.charAt(from + 13) == ':' && (length == 16 || line.charAt(from + 16) == ':')) {
+            int year = digits(line, from, 4);
+            int month = digits(line, from + 5, 2);
+            int day = digits(line, from + 8, 2);
+            int hour = digits(line, from + 11, 2);
+            int minute = digits(line, from + 14, 2);
+            int second = length == 19 ? digits(line, from + 17, 2) : 0;
+            if ((year | month | day | hour | minute | second) >= 0) {
+                return LocalDateTime.of(year, month, day, hour, minute, second);
+            }
+        }
+        return LocalDateTime.parse(line.substring(from, ends[index]));
+    }
+
+    private int digits(String line, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private Duration parseDuration(String line, int index) {
+        int from = starts[index];
+        int to = ends[index];
+        if (to - from > 2 && line.charAt(from) == 'P' && line.charAt(from + 1) == 'T') {
+            long seconds = 0;
+            long value = 0;
+            boolean number = false;
+            boolean fast = true;
+            for (int i = from + 2; i < to && fast; i++) {
+                char c = line.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    value = value * 10 + (c - '0');
+                    number = true;
+                    fast = value < MAX_DURATION_NUMBER;
+                } else if (number && (c == 'H' || c == 'M' || c == 'S')) {
+                    seconds += value * (c == 'H' ? 3600 : c == 'M' ? 60 : 1);
+                    value = 0;
+                    number = false;
+                } else {
+                    fast = false;
+                }
+            }
+            if (fast && !number) {
+                return Duration.ofSeconds(seconds);
+            }
+        }
+        return Duration.parse(line.substring(from, to));
+    }
+
+    private ManagerSaveException malformed(String line) {
+        return new ManagerSaveException("Некорректная строка файла: " + line);
+    }
+}
@@ -0,0 +1,372 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+import model.enums.Durability;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+public class TaskJournal implements Closeable {
+    public static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 10;
+    public static final int DEFAULT_COMMIT_RECORDS = 64;
+    private static final String EXTENSION = ".journal";
+    private static final String SEALED_EXTENSION = ".sealed";
+    private static final String BEGIN = "BEGIN,";
+    private static final String COMMIT = "COMMIT,";
+    private static final int CHECKSUM_LENGTH = 8;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private final File file;
+    private final Durability durability;
+    private final Object lock = new Object();
+    private long commitIntervalMillis = DEFAULT_COMMIT_INTERVAL_MILLIS;
+    private int commitRecords = DEFAULT_COMMIT_RECORDS;
+    private FileChannel channel;
+    private Thread committer;
+    private IOException failure;
+    private long written;
+    private long forced;
+    private int pending;
+    private int records;
+
+    public TaskJournal(File file) {
+        this(file, Durability.ASYNC);
+    }
+
+    public TaskJournal(File file, Durability durability) {
+        this.file = file;
+        this.durability = durability;
+    }
+
+    public static File journalFor(File snapshot) {
+        return new File(snapshot.getPath() + EXTENSION);
+    }
+
+    public static File sealedFor(File snapshot) {
+        return new File(snapshot.getPath() + EXTENSION + SEALED_EXTENSION);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public int getRecords() {
+        return records;
+    }
+
+    public long getSize() {
+        synchronized (lock) {
+            try {
+                return channel == null ? file.length() : channel.size();
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Ошибка чтения размера журнала.");
+            }
+        }
+    }
+
+    public void setCommitPolicy(long commitIntervalMillis, int commitRecords) {
+        if (commitIntervalMillis <= 0 || commitRecords <= 0) {
+            throw new IllegalArgumentException("Параметры групповой фиксации должны быть положительными.");
+        }
+        synchronized (lock) {
+            this.commitIntervalMillis = commitIntervalMillis;
+            this.commitRecords = commitRecords;
+        }
+    }
+
+    public void append(List<String> records) {
+        await(write(records));
+    }
+
+    public long write(List<String> records) {
+        return write(records, false);
+    }
+
+    /**
+     * Дописывает записи в журнал. Атомарная группа обрамляется записями BEGIN и COMMIT: при чтении группа
+     * без COMMIT считается недописанной и отбрасывается целиком вместе со всем, что за ней.
+     */
+    public long write(List<String> records, boolean atomic) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CRC32C checksum = new CRC32C();
+        if (atomic) {
+            encode(BEGIN + records.size(), bytes, checksum);
+        }
+        for (String record : records) {
+            encode(record, bytes, checksum);
+        }
+        if (atomic) {
+            encode(COMMIT + records.size(), bytes, checksum);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+
+        synchronized (lock) {
+            try {
+                open();
+                long target = written + buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                written = target;
+                pending += records.size();
+                this.records += records.size();
+
+                if (durability == Durability.SYNC) {
+                    channel.force(false);
+                    forced = written;
+                    pending = 0;
+                } else if (pending >= commitRecords) {
+                    lock.notifyAll();
+                }
+                return target;
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Ошибка записи журнала.");
+            }
+        }
+    }
+
+    private static void encode(String record, ByteArrayOutputStream bytes, CRC32C checksum) {
+        byte[] value = record.getBytes(StandardCharsets.UTF_8);
+        checksum.reset();
+        checksum.update(value, 0, value.length);
+        int crc = (int) checksum.getValue();
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            bytes.write(HEX[(crc >>> shift) & 0xF]);
+        }
+        bytes.write(',');
+        bytes.write(value, 0, value.length);
+        bytes.write('\n');
+    }
+
+    public void await(long position) {
+        if (durability != Durability.BATCHED) {
+            return;
+        }
+        synchronized (lock) {
+            try {
+                while (forced < position) {
+                    if (failure != null) {
+                        throw new ManagerSaveException("Ошибка записи журнала.");
+                    }
+                    lock.wait();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new ManagerSaveException("Ожидание фиксации журнала прервано.");
+            }
+        }
+    }
+
+    public void flush() {
+        synchronized (lock) {
+            if (channel == null || forced == written) {
+                return;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Ошибка фиксации журнала.");
+            }
+            forced = written;
+            pending = 0;
+            lock.notifyAll();
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        pending = 0;
+        failure = null;
+        if (durability != Durability.SYNC) {
+            FileChannel current = channel;
+            committer = new Thread(() -> commitLoop(current), "journal-committer");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    private void commitLoop(FileChannel current) {
+        while (true) {
+            long target;
+            synchronized (lock) {
+                try {
+                    if (channel == current && pending < commitRecords) {
+                        lock.wait(commitIntervalMillis);
+                    }
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                if (channel != current) {
+                    return;
+                }
+                if (forced == written) {
+                    continue;
+                }
+                target = written;
+                pending = 0;
+            }
+            try {
+                current.force(false);
+            } catch (IOException exception) {
+                synchronized (lock) {
+                    failure = exception;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                forced = Math.max(forced, target);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    public List<String> read() {
+        List<String> records = new ArrayList<>();
+        if (!file.exists()) {
+            return records;
+        }
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file.toPath());
+        } catch (IOException exception) {
+            throw new ManagerSaveException("Ошибка чтения журнала.");
+        }
+
+        CRC32C checksum = new CRC32C();
+        List<String> group = null;
+        int groupStart = 0;
+        int start = 0;
+        while (start < bytes.length) {
+            int end = start;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            if (end == bytes.length) {
+                break;
+            }
+            String record = decode(bytes, start, end, checksum);
+            if (record == null) {
+                break;
+            }
+            if (record.startsWith(BEGIN)) {
+                if (group != null) {
+                    break;
+                }
+                group = new ArrayList<>();
+                groupStart = start;
+            } else if (record.startsWith(COMMIT)) {
+                if (group == null || !record.equals(COMMIT + group.size())) {
+                    break;
+                }
+                records.addAll(group);
+                group = null;
+            } else if (!record.isEmpty()) {
+                (group != null ? group : records).add(record);
+            }
+            start = end + 1;
+        }
+        if (group != null) {
+            start = groupStart;
+        }
+        if (start < bytes.length) {
+            recover(start, bytes.length);
+        }
+        this.records = records.size();
+        return records;
+    }
+
+    private static String decode(byte[] bytes, int start, int end, CRC32C checksum) {
+        if (end - start > CHECKSUM_LENGTH && bytes[start + CHECKSUM_LENGTH] == ',') {
+            long expected = 0;
+            for (int i = start; i < start + CHECKSUM_LENGTH && expected >= 0; i++) {
+                int digit = Character.digit(bytes[i], 16);
+                expected = digit < 0 ? -1 : expected << 4 | digit;
+            }
+            if (expected >= 0) {
+                int from = start + CHECKSUM_LENGTH + 1;
+                checksum.reset();
+                checksum.update(bytes, from, end - from);
+                return checksum.getValue() == expected
+                        ? new String(bytes, from, end - from, StandardCharsets.UTF_8) : null;
+            }
+        }
+        String legacy = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        return legacy.isEmpty() || legacy.startsWith("PUT,") || legacy.startsWith("REMOVE,")
+                || legacy.startsWith("CLEAR,") ? legacy : null;
+    }
+
+    private void recover(long validLength, long length) {
+        synchronized (lock) {
+            try (FileChannel damaged = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                damaged.truncate(validLength);
+                damaged.force(false);
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Ошибка восстановления журнала.");
+            }
+        }
+        System.out.println("Журнал " + file + " усечён до " + validLength + " байт, отброшено "
+                + (length - validLength) + " байт повреждённого хвоста.");
+    }
+
+    public void seal(File sealed) {
+        close();
+        if (file.exists() && !file.renameTo(sealed)) {
+            throw new ManagerSaveException("Ошибка закрытия сегмента журнала.");
+        }
+        records = 0;
+    }
+
+    public void truncate() {
+        close();
+        if (file.exists() && !file.delete()) {
+            throw new ManagerSaveException("Ошибка очистки журнала.");
+        }
+        records = 0;
+    }
+
+    @Override
+    public void close() {
+        Thread stopped;
+        synchronized (lock) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                if (forced < written) {
+                    channel.force(false);
+                }
+                channel.close();
+            } catch (IOException exception) {
+                throw new ManagerSaveException("Ошибка закрытия журнала.");
+            } finally {
+                channel = null;
+                forced = written;
+                stopped = committer;
+                committer = null;
+                lock.notifyAll();
+            }
+        }
+        if (stopped != null) {
+            try {
+                stopped.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
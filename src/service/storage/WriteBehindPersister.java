@@ -0,0 +1,115 @@
+package service.storage;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class WriteBehindPersister implements Closeable {
+    public static final long DEFAULT_INTERVAL_MILLIS = 200;
+    private final Runnable save;
+    private final Object saveLock = new Object();
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long saved;
+    private volatile long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private volatile boolean closed;
+    private volatile RuntimeException failure;
+    private volatile Thread persister;
+    private int saves;
+
+    public WriteBehindPersister(Runnable save) {
+        this.save = save;
+    }
+
+    public void setInterval(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Интервал сохранения должен быть положительным.");
+        }
+        this.intervalMillis = intervalMillis;
+        Thread current = persister;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    public void markDirty() {
+        changes.incrementAndGet();
+        if (persister == null) {
+            start();
+        }
+    }
+
+    public boolean isDirty() {
+        return changes.get() != saved;
+    }
+
+    public int getSaves() {
+        synchronized (saveLock) {
+            return saves;
+        }
+    }
+
+    private synchronized void start() {
+        if (persister != null || closed) {
+            return;
+        }
+        Thread thread = new Thread(this::persistLoop, "write-behind-persister");
+        thread.setDaemon(true);
+        persister = thread;
+        thread.start();
+    }
+
+    private void persistLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(intervalMillis));
+            if (closed) {
+                return;
+            }
+            try {
+                saveChanges();
+                failure = null;
+            } catch (RuntimeException exception) {
+                failure = exception;
+            }
+        }
+    }
+
+    private void saveChanges() {
+        synchronized (saveLock) {
+            long target = changes.get();
+            if (target == saved) {
+                return;
+            }
+            save.run();
+            saved = target;
+            saves++;
+        }
+    }
+
+    public void flush() {
+        saveChanges();
+        failure = null;
+    }
+
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        Thread stopped;
+        synchronized (this) {
+            closed = true;
+            stopped = persister;
+        }
+        if (stopped != null) {
+            LockSupport.unpark(stopped);
+            try {
+                stopped.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+}
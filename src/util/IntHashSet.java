@@ -0,0 +1,200 @@
+package util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество {@code int} с открытой адресацией в одном массиве без упаковки. Ноль служит признаком пустой
+ * ячейки, поэтому сам ключ {@code 0} хранится отдельным флагом. Обход через {@link #forEach(IntConsumer)}
+ * не создаёт объектов, порядок обхода не определён.
+ */
+public final class IntHashSet implements IntSet {
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int FREE = 0;
+    private int[] keys = new int[DEFAULT_CAPACITY];
+    private boolean hasFree;
+    private int size;
+
+    public IntHashSet() {
+    }
+
+    public IntHashSet(int... values) {
+        for (int value : values) {
+            add(value);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return hasFree;
+        }
+        return find(value) >= 0;
+    }
+
+    public boolean add(int value) {
+        if (value == FREE) {
+            if (hasFree) {
+                return false;
+            }
+            hasFree = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(value) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!hasFree) {
+                return false;
+            }
+            hasFree = false;
+            size--;
+            return true;
+        }
+        int slot = find(value);
+        if (slot < 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = FREE;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasFree = false;
+        size = 0;
+    }
+
+    public IntHashSet copy() {
+        IntHashSet copy = new IntHashSet();
+        copy.keys = keys.clone();
+        copy.hasFree = hasFree;
+        copy.size = size;
+        return copy;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        if (hasFree) {
+            action.accept(FREE);
+        }
+        for (int key : keys) {
+            if (key != FREE) {
+                action.accept(key);
+            }
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] values = new int[size];
+        int index = 0;
+        if (hasFree) {
+            values[index++] = FREE;
+        }
+        for (int key : keys) {
+            if (key != FREE) {
+                values[index++] = key;
+            }
+        }
+        return values;
+    }
+
+    private int find(int value) {
+        int mask = keys.length - 1;
+        int slot = hash(value) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        keys = new int[capacity];
+        int mask = capacity - 1;
+        for (int key : oldKeys) {
+            if (key != FREE) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private static int hash(int value) {
+        return value ^ (value >>> 16);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IntHashSet other = (IntHashSet) o;
+        if (size != other.size || hasFree != other.hasFree) {
+            return false;
+        }
+        for (int key : keys) {
+            if (key != FREE && !other.contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int key : keys) {
+            hash += key;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,18 @@
+package util;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Множество {@code int} только для чтения. Порядок обхода и {@link #toArray()} определяет реализация.
+ */
+public interface IntSet {
+    int size();
+
+    boolean isEmpty();
+
+    boolean contains(int value);
+
+    void forEach(IntConsumer action);
+
+    int[] toArray();
+}
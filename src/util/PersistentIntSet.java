@@ -0,0 +1,93 @@
+package util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Неизменяемое упорядоченное множество {@code int} поверх {@link PersistentSortedMap}. Добавление и удаление
+ * возвращают новое множество за O(log n), прежнее остаётся целым и делит с новым все незатронутые узлы.
+ */
+public final class PersistentIntSet implements IntSet {
+    private static final PersistentIntSet EMPTY = new PersistentIntSet(PersistentSortedMap.empty());
+    private final PersistentSortedMap<Integer, Boolean> values;
+
+    private PersistentIntSet(PersistentSortedMap<Integer, Boolean> values) {
+        this.values = values;
+    }
+
+    public static PersistentIntSet empty() {
+        return EMPTY;
+    }
+
+    public static PersistentIntSet of(int... values) {
+        PersistentIntSet set = EMPTY;
+        for (int value : values) {
+            set = set.add(value);
+        }
+        return set;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    @Override
+    public boolean contains(int value) {
+        return values.containsKey(value);
+    }
+
+    public PersistentIntSet add(int value) {
+        return contains(value) ? this : new PersistentIntSet(values.put(value, Boolean.TRUE));
+    }
+
+    public PersistentIntSet remove(int value) {
+        PersistentSortedMap<Integer, Boolean> removed = values.remove(value);
+        return removed == values ? this : new PersistentIntSet(removed);
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (Map.Entry<Integer, Boolean> entry : values.tailEntries(Integer.MIN_VALUE, true)) {
+            action.accept(entry.getKey());
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int index = 0;
+        for (Map.Entry<Integer, Boolean> entry : values.tailEntries(Integer.MIN_VALUE, true)) {
+            result[index++] = entry.getKey();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PersistentIntSet other = (PersistentIntSet) o;
+        return Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int value : toArray()) {
+            hash += value;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
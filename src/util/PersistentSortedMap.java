@@ -0,0 +1,365 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Неизменяемое упорядоченное отображение на декартовом дереве. Изменение копирует только путь от корня
+ * до затронутого узла, O(log n) узлов, остальное дерево разделяется со старой версией. Приоритет узла
+ * выводится из хеша ключа, поэтому форма дерева не зависит от порядка вставок. Отображение, созданное через
+ * {@link #summarized}, хранит в каждом узле сводку его поддерева, пересчитываемую вместе с путём.
+ */
+public final class PersistentSortedMap<K, V> {
+    private static final PersistentSortedMap<?, ?> EMPTY = new PersistentSortedMap<>(null, null, null);
+    private final Comparator<? super K> comparator;
+    private final Summary<? super K, ? super V, ?> summary;
+    private final Node<K, V> root;
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Summary<? super K, ? super V, ?> summary,
+                                Node<K, V> root) {
+        this.comparator = comparator;
+        this.summary = summary;
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<? super K>, V> PersistentSortedMap<K, V> empty() {
+        return (PersistentSortedMap<K, V>) EMPTY;
+    }
+
+    public static <K, V> PersistentSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentSortedMap<>(comparator, null, null);
+    }
+
+    public static <K extends Comparable<? super K>, V, S> PersistentSortedMap<K, V> summarized(
+            Summary<? super K, ? super V, S> summary) {
+        return new PersistentSortedMap<>(null, summary, null);
+    }
+
+    public Branch<K, V> root() {
+        return root;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp == 0) {
+                return node.value;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public Map.Entry<K, V> lowerEntry(K key) {
+        Node<K, V> node = root;
+        Node<K, V> lower = null;
+        while (node != null) {
+            if (compare(key, node.key) > 0) {
+                lower = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return lower;
+    }
+
+    public K firstKey() {
+        Node<K, V> node = root;
+        while (node != null && node.left != null) {
+            node = node.left;
+        }
+        return node == null ? null : node.key;
+    }
+
+    public K lastKey() {
+        Node<K, V> node = root;
+        while (node != null && node.right != null) {
+            node = node.right;
+        }
+        return node == null ? null : node.key;
+    }
+
+    public PersistentSortedMap<K, V> put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Значение не может быть null.");
+        }
+        return new PersistentSortedMap<>(comparator, summary, insert(root, key, value, priority(key)));
+    }
+
+    public PersistentSortedMap<K, V> remove(K key) {
+        Node<K, V> removed = delete(root, key);
+        return removed == root ? this : new PersistentSortedMap<>(comparator, summary, removed);
+    }
+
+    public List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Нет элемента с индексом " + index);
+                }
+                Node<K, V> node = root;
+                while (true) {
+                    int leftSize = PersistentSortedMap.size(node.left);
+                    if (index < leftSize) {
+                        node = node.left;
+                    } else if (index == leftSize) {
+                        return node.value;
+                    } else {
+                        index -= leftSize + 1;
+                        node = node.right;
+                    }
+                }
+            }
+
+            @Override
+            public int size() {
+                return PersistentSortedMap.this.size();
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                Iterator<Node<K, V>> nodes = new InOrder<>(root);
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return nodes.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return nodes.next().value;
+                    }
+                };
+            }
+        };
+    }
+
+    public Iterable<Map.Entry<K, V>> tailEntries(K from, boolean inclusive) {
+        return () -> {
+            InOrder<K, V> nodes = new InOrder<>(null);
+            Node<K, V> node = root;
+            while (node != null) {
+                int cmp = compare(node.key, from);
+                if (cmp > 0 || (inclusive && cmp == 0)) {
+                    nodes.path.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return nodes.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    return nodes.next();
+                }
+            };
+        };
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value, int priority) {
+        if (node == null) {
+            return node(key, value, priority, null, null);
+        }
+        int cmp = compare(key, node.key);
+        if (cmp == 0) {
+            return node(key, value, node.priority, node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<K, V> left = insert(node.left, key, value, priority);
+            if (left.priority > node.priority) {
+                return node(left.key, left.value, left.priority, left.left,
+                        node(node.key, node.value, node.priority, left.right, node.right));
+            }
+            return node(node.key, node.value, node.priority, left, node.right);
+        }
+        Node<K, V> right = insert(node.right, key, value, priority);
+        if (right.priority > node.priority) {
+            return node(right.key, right.value, right.priority,
+                    node(node.key, node.value, node.priority, node.left, right.left), right.right);
+        }
+        return node(node.key, node.value, node.priority, node.left, right);
+    }
+
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(key, node.key);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<K, V> left = delete(node.left, key);
+            return left == node.left ? node : node(node.key, node.value, node.priority, left, node.right);
+        }
+        Node<K, V> right = delete(node.right, key);
+        return right == node.right ? node : node(node.key, node.value, node.priority, node.left, right);
+    }
+
+    private Node<K, V> merge(Node<K, V> left, Node<K, V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return node(left.key, left.value, left.priority, left.left, merge(left.right, right));
+        }
+        return node(right.key, right.value, right.priority, merge(left, right.left), right.right);
+    }
+
+    private Node<K, V> node(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+        Object summarized = summary == null ? null : summarize(summary, left, key, value, right);
+        return new Node<>(key, value, priority, left, right, summarized);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V, S> S summarize(Summary<K, V, S> summary, Node<?, ?> left, K key, V value,
+                                         Node<?, ?> right) {
+        return summary.of(left == null ? null : (S) left.summary, key, value,
+                right == null ? null : (S) right.summary);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(K first, K second) {
+        return comparator == null ? ((Comparable<? super K>) first).compareTo(second)
+                : comparator.compare(first, second);
+    }
+
+    private static int priority(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        hash ^= hash >>> 15;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Сводка поддерева: строится из сводок левого и правого поддеревьев ({@code null} для пустого) и записи узла.
+     */
+    @FunctionalInterface
+    public interface Summary<K, V, S> {
+        S of(S left, K key, V value, S right);
+    }
+
+    /**
+     * Узел дерева только для чтения, для обхода, который опирается на сводки поддеревьев.
+     */
+    public interface Branch<K, V> extends Map.Entry<K, V> {
+        Branch<K, V> left();
+
+        Branch<K, V> right();
+
+        Object summary();
+    }
+
+    private static final class Node<K, V> implements Branch<K, V> {
+        private final K key;
+        private final V value;
+        private final int priority;
+        private final Node<K, V> left;
+        private final Node<K, V> right;
+        private final int size;
+        private final Object summary;
+
+        private Node(K key, V value, int priority, Node<K, V> left, Node<K, V> right, Object summary) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+            this.summary = summary;
+        }
+
+        @Override
+        public Branch<K, V> left() {
+            return left;
+        }
+
+        @Override
+        public Branch<K, V> right() {
+            return right;
+        }
+
+        @Override
+        public Object summary() {
+            return summary;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("Узел неизменяемого дерева.");
+        }
+    }
+
+    private static final class InOrder<K, V> implements Iterator<Node<K, V>> {
+        private final ArrayDeque<Node<K, V>> path = new ArrayDeque<>();
+
+        private InOrder(Node<K, V> root) {
+            descend(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public Node<K, V> next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = path.pop();
+            descend(node.right);
+            return node;
+        }
+
+        private void descend(Node<K, V> node) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+        }
+    }
+}
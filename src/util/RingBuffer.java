@@ -0,0 +1,73 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Кольцевой буфер фиксированной ёмкости для многих производителей и одного потребителя. Производитель
+ * занимает номер ячейки одним атомарным инкрементом и публикует элемент записью этого номера в ячейку,
+ * потребитель забирает подряд опубликованные элементы пачкой. Массив ячеек выделяется один раз; при
+ * заполнении производитель ждёт, пока потребитель освободит место.
+ */
+public class RingBuffer<E> {
+    private static final int SPINS = 100;
+    private final Object[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ёмкость буфера должна быть положительной степенью двойки.");
+        }
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public void put(E element) {
+        long sequence = tail.getAndIncrement();
+        int spins = 0;
+        while (sequence - head >= slots.length) {
+            if (++spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(this, 1_000);
+            }
+        }
+        int index = (int) sequence & mask;
+        slots[index] = element;
+        published.set(index, sequence);
+    }
+
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> consumer, int limit) {
+        long current = head;
+        int count = 0;
+        while (count < limit && published.get((int) current & mask) == current) {
+            int index = (int) current & mask;
+            E element = (E) slots[index];
+            slots[index] = null;
+            consumer.accept(element);
+            current++;
+            count++;
+        }
+        head = current;
+        return count;
+    }
+
+    public boolean isEmpty() {
+        long current = head;
+        return published.get((int) current & mask) != current;
+    }
+}
@@ -152,4 +152,16 @@ class EpicsHandlerTest {
         assertEquals(200, response.statusCode(), "Неверный код ответа.");
         assertTrue(epicsFromManager.isEmpty(), "Задачи не удалились.");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSubTaskIdsJson() {
+        Epic epic = new Epic("Эпик 1");
+        epic.setSubTaskEpicsId(List.of(3, 2));
+
+        String epicJson = gson.toJson(epic);
+        Epic fromJson = gson.fromJson(epicJson, Epic.class);
+
+        assertTrue(epicJson.contains("\"subTaskEpicsId\":[2,3]"), "Подзадачи эпика должны сериализоваться массивом.");
+        assertEquals(List.of(2, 3), fromJson.getSubTaskEpicsId());
+    }
+}
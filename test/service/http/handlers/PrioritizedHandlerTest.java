@@ -74,4 +74,73 @@ class PrioritizedHandlerTest {
         assertNotNull(tasksFromManager, "Задачи не возвращаются");
         assertEquals(3, tasksFromManager.size(), "Некорректное количество задач");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getPrioritizedWindowTest() throws IOException, InterruptedException {
+        inMemoryTaskManager.createTask(new Task("Задача 1", "Описание задачи 1",
+                Status.NEW, LocalDateTime.of(2024, 5, 25, 10, 0),
+                Duration.ofMinutes(60)));
+        inMemoryTaskManager.createTask(new Task("Задача 2", "Описание задачи 2",
+                Status.NEW, LocalDateTime.of(2024, 6, 25, 10, 0),
+                Duration.ofMinutes(60)));
+        inMemoryTaskManager.createTask(new Task("Задача 3", "Описание задачи 3",
+                Status.NEW, LocalDateTime.of(2024, 7, 25, 10, 0),
+                Duration.ofMinutes(60)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> window = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=2024-05-25T10:30&to=2024-07-01T00:00"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> page = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?limit=1"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> wrong = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=вчера"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        client.close();
+
+        List<Task> all = inMemoryTaskManager.getPrioritizedTasks();
+        List<Task> tasksFromWindow = gson.fromJson(window.body(), new TasksListTypeToken().getType());
+        List<Task> tasksFromPage = gson.fromJson(page.body(), new TasksListTypeToken().getType());
+
+        assertEquals(200, window.statusCode(), "Неверный код ответа.");
+        assertEquals(all.subList(0, 2), tasksFromWindow, "Окно вернуло не те задачи.");
+        assertEquals(all.subList(0, 1), tasksFromPage, "Страница вернула не те задачи.");
+        assertEquals(404, wrong.statusCode(), "Неверный параметр должен отклоняться.");
+    }
+
+    @Test
+    public void getFreeSlotTest() throws IOException, InterruptedException {
+        inMemoryTaskManager.createTask(new Task("Задача 1", "Описание задачи 1",
+                Status.NEW, LocalDateTime.of(2024, 5, 25, 10, 0),
+                Duration.ofMinutes(60)));
+        inMemoryTaskManager.createTask(new Task("Задача 2", "Описание задачи 2",
+                Status.NEW, LocalDateTime.of(2024, 5, 25, 11, 30),
+                Duration.ofMinutes(60)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> found = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free?duration=60&notBefore=2024-05-25T10:30"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> missing = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free?duration=60"
+                        + "&notBefore=2024-05-25T10:30&notAfter=2024-05-25T13:00"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> wrong = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free?notBefore=2024-05-25T10:30"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        client.close();
+
+        assertEquals(200, found.statusCode(), "Неверный код ответа.");
+        assertEquals(LocalDateTime.of(2024, 5, 25, 12, 30), gson.fromJson(found.body(), LocalDateTime.class),
+                "Найдено не самое раннее свободное окно.");
+        assertEquals(404, missing.statusCode(), "Окно за пределами допустимого интервала не должно находиться.");
+        assertEquals(404, wrong.statusCode(), "Запрос без длительности должен отклоняться.");
+    }
+}
@@ -0,0 +1,81 @@
+package service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GapIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static SlotKey slot(int id, int fromMinute, int toMinute) {
+        return new SlotKey(START.plusMinutes(fromMinute), START.plusMinutes(toMinute), id);
+    }
+
+    @Test
+    void earliestSlotTest() {
+        GapIndex index = GapIndex.empty()
+                .put(slot(1, 60, 120))
+                .put(slot(2, 150, 180))
+                .put(slot(3, 240, 300));
+
+        assertEquals(START, index.findFreeSlot(Duration.ofMinutes(60), START, null));
+        assertEquals(START.plusMinutes(180), index.findFreeSlot(Duration.ofMinutes(60), START.plusMinutes(30), null),
+                "Окно не должно пересекаться с задачей, начавшейся раньше.");
+        assertEquals(START.plusMinutes(120), index.findFreeSlot(Duration.ofMinutes(30), START.plusMinutes(90), null),
+                "Задача, идущая в момент начала окна, сдвигает его к своему концу.");
+        assertEquals(START.plusMinutes(300), index.findFreeSlot(Duration.ofMinutes(61), START.plusMinutes(30), null));
+        assertNull(index.findFreeSlot(Duration.ofMinutes(61), START.plusMinutes(30), START.plusMinutes(360)));
+        assertEquals(START.plusMinutes(300),
+                index.remove(slot(2, 150, 180)).findFreeSlot(Duration.ofMinutes(121), START.plusMinutes(30), null));
+        assertEquals(START.plusMinutes(120),
+                index.remove(slot(2, 150, 180)).findFreeSlot(Duration.ofMinutes(120), START.plusMinutes(30), null));
+        assertThrows(IllegalArgumentException.class, () -> index.findFreeSlot(Duration.ofMinutes(-1), START, null));
+        assertThrows(IllegalArgumentException.class, () -> index.findFreeSlot(Duration.ZERO, START, START.minusHours(1)));
+    }
+
+    @Test
+    void randomOperationsTest() {
+        GapIndex index = GapIndex.empty();
+        TreeMap<Integer, SlotKey> expected = new TreeMap<>();
+        Random random = new Random(25);
+        for (int i = 0; i < 20_000; i++) {
+            int slot = random.nextInt(500);
+            if (expected.containsKey(slot) || random.nextInt(3) == 0) {
+                SlotKey removed = expected.remove(slot);
+                if (removed != null) {
+                    index = index.remove(removed);
+                }
+            } else {
+                SlotKey key = slot(i, slot * 10, slot * 10 + 1 + random.nextInt(10));
+                expected.put(slot, key);
+                index = index.put(key);
+            }
+            Duration duration = Duration.ofMinutes(random.nextInt(40));
+            LocalDateTime notBefore = START.plusMinutes(random.nextInt(5_100));
+            LocalDateTime notAfter = random.nextBoolean() ? null : notBefore.plusMinutes(random.nextInt(200));
+            assertEquals(naive(new ArrayList<>(expected.values()), duration, notBefore, notAfter),
+                    index.findFreeSlot(duration, notBefore, notAfter));
+        }
+    }
+
+    private static LocalDateTime naive(List<SlotKey> slots, Duration duration, LocalDateTime notBefore,
+                                       LocalDateTime notAfter) {
+        LocalDateTime start = notBefore;
+        for (SlotKey slot : slots) {
+            if (!start.plus(duration).isAfter(slot.start())) {
+                break;
+            }
+            if (slot.end().isAfter(start)) {
+                start = slot.end();
+            }
+        }
+        return notAfter != null && start.plus(duration).isAfter(notAfter) ? null : start;
+    }
+}
@@ -0,0 +1,152 @@
+package service.index;
+
+import model.enums.Status;
+import model.tasks.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrioritizedIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private static Task task(int id, LocalDateTime startTime, Duration duration) {
+        return new Task(id, "задача " + id, Status.NEW, "описание", startTime, duration);
+    }
+
+    @Test
+    void tiesTest() {
+        PrioritizedIndex index = new PrioritizedIndex();
+        index.put(task(2, START, Duration.ZERO));
+        index.put(task(1, START, Duration.ZERO));
+        index.put(task(3, START, Duration.ofMinutes(30)));
+
+        assertEquals(3, index.size(), "Задачи с одинаковым временем начала не должны вытеснять друг друга.");
+        assertEquals(List.of(1, 2, 3), index.toList().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void orderTest() {
+        PrioritizedIndex index = new PrioritizedIndex();
+        index.put(task(1, START.plusHours(2), Duration.ofMinutes(10)));
+        index.put(task(2, START, Duration.ofMinutes(10)));
+        index.put(task(3, null, null));
+        index.put(task(4, START.plusHours(1), Duration.ofMinutes(10)));
+
+        assertEquals(List.of(2, 4, 1), index.toList().stream().map(Task::getId).toList());
+        assertFalse(index.contains(3), "Задача без времени не попадает в индекс.");
+    }
+
+    @Test
+    void removeAfterChangeTest() {
+        PrioritizedIndex index = new PrioritizedIndex();
+        Task task = task(1, START, Duration.ofMinutes(10));
+        index.put(task);
+        task.setName("другое имя");
+        task.setStatus(Status.DONE);
+
+        assertSame(task, index.remove(1));
+        assertEquals(0, index.size());
+        assertNull(index.remove(1));
+    }
+
+    @Test
+    void rescheduleTest() {
+        PrioritizedIndex index = new PrioritizedIndex();
+        index.put(task(1, START, Duration.ofMinutes(10)));
+        index.put(task(2, START.plusHours(1), Duration.ofMinutes(10)));
+        index.put(task(1, START.plusHours(2), Duration.ofMinutes(10)));
+
+        assertEquals(2, index.size(), "Старая запись задачи должна быть удалена.");
+        assertEquals(List.of(2, 1), index.toList().stream().map(Task::getId).toList());
+
+        index.put(task(1, null, null));
+        assertEquals(List.of(2), index.toList().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void overlapsTest() {
+        PrioritizedIndex index = new PrioritizedIndex();
+        index.put(task(1, START, Duration.ofMinutes(60)));
+        index.put(task(2, START.plusHours(2), Duration.ofMinutes(60)));
+
+        assertTrue(index.overlaps(task(3, START.plusMinutes(30), Duration.ofMinutes(10))));
+        assertFalse(index.overlaps(task(3, START.plusHours(1), Duration.ofMinutes(60))),
+                "Задачи, касающиеся границами, не пересекаются.");
+        assertFalse(index.overlaps(task(1, START.plusMinutes(30), Duration.ofMinutes(60))),
+                "Задача не должна пересекаться сама с собой.");
+        assertTrue(index.overlaps(task(1, START.plusMinutes(90), Duration.ofMinutes(60))));
+        assertFalse(index.overlaps(task(3, null, null)));
+    }
+
+    @Test
+    void rangeTest() {
+        PrioritizedIndex index = new PrioritizedIndex();
+        PersistentPrioritizedIndex persistent = PersistentPrioritizedIndex.empty();
+        for (Task task : List.of(task(1, START, Duration.ofMinutes(90)),
+                task(2, START.plusHours(2), Duration.ofMinutes(30)),
+                task(3, START.plusHours(3), Duration.ofMinutes(30)),
+                task(4, START.plusHours(4), Duration.ofMinutes(30)))) {
+            index.put(task);
+            persistent = persistent.put(task);
+        }
+
+        assertEquals(List.of(1, 2), ids(index.range(START.plusHours(1), START.plusHours(3))),
+                "Задача, начавшаяся раньше окна и ещё идущая, должна попасть в выборку.");
+        assertEquals(List.of(2, 3), ids(index.range(START.plusMinutes(90), START.plusMinutes(200))));
+        assertEquals(List.of(3, 4), ids(index.range(START.plusHours(3), null)));
+        assertTrue(index.range(START.plusHours(5), START.plusHours(6)).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.range(START.plusHours(1), START));
+        assertEquals(ids(index.range(START.plusHours(1), START.plusHours(3))),
+                ids(persistent.range(START.plusHours(1), START.plusHours(3))));
+        assertEquals(ids(index.range(null, START.plusHours(3))), ids(persistent.range(null, START.plusHours(3))));
+    }
+
+    @Test
+    void limitedRangeTest() {
+        PrioritizedIndex index = new PrioritizedIndex();
+        PersistentPrioritizedIndex persistent = PersistentPrioritizedIndex.empty();
+        for (Task task : List.of(task(1, START, Duration.ofMinutes(90)),
+                task(2, START.plusHours(2), Duration.ofMinutes(30)),
+                task(3, START.plusHours(3), Duration.ofMinutes(30)),
+                task(4, START.plusHours(4), Duration.ofMinutes(30)))) {
+            index.put(task);
+            persistent = persistent.put(task);
+        }
+
+        assertEquals(List.of(1, 2), ids(index.range(START.plusHours(1), null, 2)),
+                "Задача, идущая на начало окна, должна учитываться в лимите.");
+        assertEquals(List.of(1), ids(index.range(START.plusHours(1), null, 1)));
+        assertEquals(List.of(2, 3, 4), ids(index.range(START.plusHours(2), START.plusHours(5), 10)));
+        assertEquals(ids(index.range(START.plusHours(1), null, 3)), ids(persistent.range(START.plusHours(1), null, 3)));
+        assertEquals(ids(index.range(null, START.plusHours(4), 2)), ids(persistent.range(null, START.plusHours(4), 2)));
+        assertThrows(IllegalArgumentException.class, () -> index.range(START, null, 0));
+        PersistentPrioritizedIndex filled = persistent;
+        assertThrows(IllegalArgumentException.class, () -> filled.range(START, null, 0));
+    }
+
+    @Test
+    void afterTest() {
+        PrioritizedIndex index = new PrioritizedIndex();
+        PersistentPrioritizedIndex persistent = PersistentPrioritizedIndex.empty();
+        for (int id = 1; id <= 5; id++) {
+            Task task = task(id, START.plusHours(id), Duration.ofMinutes(10));
+            index.put(task);
+            persistent = persistent.put(task);
+        }
+
+        assertEquals(List.of(1, 2), ids(index.after(null, 2)));
+        assertEquals(List.of(3, 4), ids(index.after(START.plusHours(2), 2)), "Курсор не входит в страницу.");
+        assertEquals(List.of(5), ids(index.after(START.plusHours(4), 10)));
+        assertEquals(List.of(3, 4), ids(persistent.after(START.plusHours(2), 2)));
+        assertEquals(List.of(1, 2, 3), ids(persistent.after(null, 3)));
+        assertThrows(IllegalArgumentException.class, () -> index.after(START, 0));
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
@@ -0,0 +1,33 @@
+package service.index;
+
+import model.enums.Status;
+import model.enums.Type;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusIndexTest {
+
+    @Test
+    void reindexTest() {
+        StatusIndex index = new StatusIndex();
+        Task task = new Task("задача", "описание", 1, Status.NEW);
+        index.put(task);
+        index.put(new SubTask("Под задача", "описание", 2, Status.NEW, 3));
+
+        task.setStatus(Status.DONE);
+        assertArrayEquals(new int[]{1}, index.ids(Type.TASK, Status.NEW), "Индекс не должен меняться без put.");
+        index.put(task);
+        assertEquals(0, index.count(Type.TASK, Status.NEW));
+        assertArrayEquals(new int[]{1}, index.ids(Type.TASK, Status.DONE));
+
+        task.setStatus(Status.IN_PROGRESS);
+        index.remove(1);
+        assertEquals(0, index.count(Type.TASK, Status.DONE), "Задача снимается по запомненному статусу.");
+        assertArrayEquals(new int[]{2}, index.ids(Type.SUBTASK, Status.NEW));
+        index.clear();
+        assertEquals(0, index.count(Type.SUBTASK, Status.NEW));
+    }
+}
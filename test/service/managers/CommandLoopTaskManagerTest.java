@@ -0,0 +1,82 @@
+package service.managers;
+
+import exception.TimeOverlapException;
+import model.enums.Status;
+import model.tasks.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandLoopTaskManagerTest extends TaskManagerTest<CommandLoopTaskManager> {
+
+    @BeforeEach
+    void setUp() {
+        manager = CommandLoopTaskManager.create(new InMemoryTaskManager(), 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void futureOverlapTest() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 25, 10, 0);
+        CompletableFuture<Void> first = manager.execute(loop -> loop.createTask(new Task("задача", "описание",
+                Status.NEW, start, Duration.ofMinutes(60))));
+        CompletableFuture<Void> second = manager.execute(loop -> loop.createTask(new Task("пересечение",
+                "описание", Status.NEW, start.plusMinutes(30), Duration.ofMinutes(60))));
+
+        assertDoesNotThrow(first::join);
+        CompletionException exception = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(TimeOverlapException.class, exception.getCause());
+        assertEquals(1, manager.submit(loop -> loop.getAllTasks().size()).join());
+    }
+
+    @Test
+    void publicationOrderTest() throws InterruptedException {
+        int producers = 4;
+        int commands = 2_000;
+        List<Thread> threads = new ArrayList<>();
+        List<List<Task>> created = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            List<Task> own = new ArrayList<>();
+            created.add(own);
+            threads.add(new Thread(() -> {
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (int i = 0; i < commands; i++) {
+                    Task task = new Task("задача " + i, "описание", Status.NEW);
+                    own.add(task);
+                    futures.add(manager.execute(loop -> loop.createTask(task)));
+                }
+                futures.forEach(CompletableFuture::join);
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(producers * commands, manager.getAllTasks().size());
+        for (List<Task> own : created) {
+            for (int i = 1; i < own.size(); i++) {
+                assertTrue(own.get(i - 1).getId() < own.get(i).getId(), "Команды одного потока переставлены.");
+            }
+        }
+    }
+
+    @Test
+    void closedTest() {
+        manager.close();
+        assertThrows(IllegalStateException.class, () -> manager.getAllTasks());
+    }
+}
@@ -0,0 +1,154 @@
+package service.managers;
+
+import exception.TaskNotFoundException;
+import exception.TimeOverlapException;
+import model.enums.Status;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerStressTest {
+    private static final int THREADS = 6;
+    private static final int OPERATIONS = 20_000;
+    private static final int EPICS = 12;
+    private static final int SLOTS = 2_000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Status[] STATUSES = Status.values();
+
+    @Test
+    void invariantsTest() throws InterruptedException {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager(8);
+        for (int i = 0; i < EPICS; i++) {
+            manager.createEpic(new Epic("Эпик " + i));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        step(manager);
+                    }
+                } catch (Throwable throwable) {
+                    failure.compareAndSet(null, throwable);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get(), () -> "Ошибка в рабочем потоке: " + failure.get());
+
+        checkEpics(manager);
+        checkPrioritized(manager);
+    }
+
+    private static void step(ConcurrentTaskManager manager) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int epicId = 1 + random.nextInt(EPICS);
+        int maxId = EPICS + THREADS * OPERATIONS;
+        try {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> manager.createSubtask(new SubTask("Под задача", "описание", randomStatus(), epicId,
+                        slot(random), Duration.ofMinutes(30 + random.nextInt(60))));
+                case 2 -> manager.createTask(new Task("задача", "описание", randomStatus(), slot(random),
+                        Duration.ofMinutes(30)));
+                case 3 -> {
+                    int id = EPICS + 1 + random.nextInt(maxId);
+                    boolean timed = random.nextBoolean();
+                    manager.updateSubTask(new SubTask(id, "Обнов.Под задача", randomStatus(), "описание", epicId,
+                            timed ? slot(random) : null, timed ? Duration.ofMinutes(45) : null));
+                }
+                case 4 -> manager.deleteSubtaskById(EPICS + 1 + random.nextInt(maxId));
+                default -> {
+                    manager.getSubtasksForEpic(epicId);
+                    manager.getByIdEpics(epicId).getSubTaskIds().toArray();
+                    manager.getAllEpics().forEach(Epic::getSubTaskEpicsId);
+                    manager.getPrioritizedTasks();
+                }
+            }
+        } catch (TimeOverlapException | TaskNotFoundException expected) {
+            return;
+        }
+    }
+
+    private static Status randomStatus() {
+        return STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)];
+    }
+
+    private static LocalDateTime slot(ThreadLocalRandom random) {
+        return START.plusHours(random.nextInt(SLOTS));
+    }
+
+    private static void checkEpics(ConcurrentTaskManager manager) {
+        for (Epic epic : manager.getAllEpics()) {
+            List<SubTask> owned = manager.getAllSubTask().stream()
+                    .filter(subTask -> subTask.getIdEpic() == epic.getId())
+                    .sorted(Comparator.comparingInt(Task::getId))
+                    .toList();
+            assertEquals(owned.stream().map(Task::getId).toList(), epic.getSubTaskEpicsId(),
+                    "Список подзадач эпика " + epic.getId() + " расходится с хранилищем.");
+            assertEquals(owned, manager.getSubtasksForEpic(epic.getId()));
+
+            long done = owned.stream().filter(subTask -> subTask.getStatus() == Status.DONE).count();
+            long created = owned.stream().filter(subTask -> subTask.getStatus() == Status.NEW).count();
+            Status expected = created == owned.size() ? Status.NEW
+                    : done == owned.size() ? Status.DONE : Status.IN_PROGRESS;
+            assertEquals(expected, epic.getStatus(), "Неверный статус эпика " + epic.getId());
+            for (Status status : STATUSES) {
+                assertEquals(owned.stream().filter(subTask -> subTask.getStatus() == status).count(),
+                        epic.getSubTaskCount(status));
+            }
+
+            List<SubTask> timed = owned.stream().filter(subTask -> subTask.getStartTime() != null).toList();
+            if (!timed.isEmpty()) {
+                assertEquals(timed.stream().map(Task::getStartTime).min(Comparator.naturalOrder()).orElseThrow(),
+                        epic.getStartTime(), "Неверное начало эпика " + epic.getId());
+                assertEquals(timed.stream().map(Task::getEndTime).max(Comparator.naturalOrder()).orElseThrow(),
+                        epic.getEndTime(), "Неверное окончание эпика " + epic.getId());
+            }
+        }
+    }
+
+    private static void checkPrioritized(ConcurrentTaskManager manager) {
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        Set<Integer> expected = new HashSet<>();
+        manager.getAllTasks().stream().filter(task -> task.getStartTime() != null)
+                .forEach(task -> expected.add(task.getId()));
+        manager.getAllSubTask().stream().filter(task -> task.getStartTime() != null)
+                .forEach(task -> expected.add(task.getId()));
+        assertEquals(expected.size(), prioritized.size(), "Лишние или потерянные задачи в списке приоритетов.");
+
+        for (int i = 0; i < prioritized.size(); i++) {
+            Task task = prioritized.get(i);
+            assertTrue(expected.contains(task.getId()));
+            assertSame(task, manager.getById(task.getId()), "Индекс слотов хранит устаревшую версию задачи.");
+            if (i > 0) {
+                Task previous = prioritized.get(i - 1);
+                assertFalse(previous.getStartTime().isAfter(task.getStartTime()), "Нарушен порядок по времени.");
+                assertFalse(previous.getEndTime().isAfter(task.getStartTime()),
+                        "Пересечение задач " + previous.getId() + " и " + task.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package service.managers;
+
+import org.junit.jupiter.api.BeforeEach;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    @BeforeEach
+    void setUp() {
+        manager = new ConcurrentTaskManager();
+    }
+}
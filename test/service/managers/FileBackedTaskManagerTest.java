@@ -1,17 +1,29 @@
 package service.managers;
 
 import exception.ManagerSaveException;
+import exception.TimeOverlapException;
+import model.enums.Durability;
+import model.enums.SnapshotFormat;
+import model.enums.StorageMode;
 import model.tasks.Epic;
 import model.enums.Status;
 import model.tasks.SubTask;
 import model.tasks.Task;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import service.storage.SegmentStore;
+import service.storage.TaskJournal;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -82,4 +94,434 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
             throw new ManagerSaveException("Ошибка в создании файла.");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void journalReplayTest() throws IOException {
+        File file = File.createTempFile("journal", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+
+        fileBackedTaskManager.createTask(new Task("задача 1", "описание задачи 1", Status.NEW));
+        fileBackedTaskManager.createEpic(new Epic("Эпик 2"));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 3", "Описание подзадачи 3", Status.DONE, 2,
+                LocalDateTime.of(2024, 5, 25, 10, 0), Duration.ofMinutes(30)));
+        fileBackedTaskManager.createTask(new Task("задача 4", "описание задачи 4", Status.NEW));
+        fileBackedTaskManager.updateTask(new Task("задача 1", "новое описание", 1, Status.IN_PROGRESS));
+        fileBackedTaskManager.deleteTaskById(4);
+        fileBackedTaskManager.close();
+
+        assertEquals(0, file.length(), "Снимок не должен перезаписываться в режиме журнала.");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertEquals(fileBackedTaskManager.getAllTasks(), loaded.getAllTasks());
+        assertEquals(fileBackedTaskManager.getAllEpics(), loaded.getAllEpics());
+        assertEquals(fileBackedTaskManager.getAllSubTask(), loaded.getAllSubTask());
+        assertEquals(Status.DONE, loaded.getByIdEpics(2).getStatus());
+        assertEquals(1, loaded.getPrioritizedTasks().size());
+        assertSame(loaded.getByIdSubTasks(3), loaded.getById(3));
+        assertNull(loaded.getById(4));
+        assertEquals(5, loaded.id);
+        loaded.close();
+    }
+
+    @Test
+    void journalBulkTest() throws IOException {
+        File file = File.createTempFile("bulk", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        fileBackedTaskManager.createEpic(new Epic("Эпик 2"));
+        fileBackedTaskManager.createTasks(List.of(new Task("задача 3", "описание", Status.NEW),
+                new Task("задача 4", "описание", Status.DONE)));
+        fileBackedTaskManager.createSubtasks(List.of(new SubTask("Под задача 5", "Описание", Status.NEW, 1),
+                new SubTask("Под задача 6", "Описание", Status.NEW, 1)));
+        fileBackedTaskManager.updateSubTasks(List.of(new SubTask("Под задача 5", "Описание", 5, Status.DONE, 2),
+                new SubTask("Под задача 6", "Описание", 6, Status.DONE, 1)));
+        fileBackedTaskManager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertEquals(fileBackedTaskManager.getAllTasks(), loaded.getAllTasks());
+        assertEquals(fileBackedTaskManager.getAllSubTask(), loaded.getAllSubTask());
+        assertEquals(List.of(6), loaded.getByIdEpics(1).getSubTaskEpicsId());
+        assertEquals(List.of(5), loaded.getByIdEpics(2).getSubTaskEpicsId());
+        assertEquals(Status.DONE, loaded.getByIdEpics(1).getStatus());
+        assertEquals(Status.DONE, loaded.getByIdEpics(2).getStatus());
+        loaded.close();
+    }
+
+    @Test
+    void journalTransactionTest() throws IOException {
+        File file = File.createTempFile("transaction", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        fileBackedTaskManager.createEpic(new Epic("Эпик 2"));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 3", "Описание", Status.NEW, 1,
+                LocalDateTime.of(2024, 5, 25, 10, 0), Duration.ofMinutes(30)));
+        File journal = TaskJournal.journalFor(file);
+        fileBackedTaskManager.flush();
+        long committed = journal.length();
+
+        assertThrows(TimeOverlapException.class, () -> fileBackedTaskManager.inTransaction(tx -> {
+            tx.updateSubTask(new SubTask(3, "Под задача 3", Status.DONE, "Описание", 2,
+                    LocalDateTime.of(2024, 5, 25, 10, 0), Duration.ofMinutes(30)));
+            tx.createTask(new Task("задача", "описание", Status.NEW, LocalDateTime.of(2024, 5, 25, 10, 0),
+                    Duration.ofMinutes(30)));
+        }));
+        fileBackedTaskManager.flush();
+        assertEquals(committed, journal.length(), "Откаченная транзакция попала в журнал.");
+
+        fileBackedTaskManager.inTransaction(tx -> {
+            tx.updateSubTask(new SubTask(3, "Под задача 3", Status.DONE, "Описание", 2));
+            tx.createTask(new Task("задача", "описание", Status.NEW));
+            tx.deleteEpicById(1);
+        });
+        fileBackedTaskManager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertNull(loaded.getByIdEpics(1));
+        assertEquals(Status.DONE, loaded.getByIdEpics(2).getStatus());
+        assertEquals(List.of(3), loaded.getByIdEpics(2).getSubTaskEpicsId());
+        assertEquals(fileBackedTaskManager.getAllTasks(), loaded.getAllTasks());
+        loaded.close();
+    }
+
+    @Test
+    void journalTornTransactionTest() throws IOException {
+        File file = File.createTempFile("tornTransaction", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        fileBackedTaskManager.createTask(new Task("задача 1", "описание", Status.NEW));
+        fileBackedTaskManager.inTransaction(tx -> {
+            tx.createTask(new Task("задача 2", "описание", Status.NEW));
+            tx.createTask(new Task("задача 3", "описание", Status.NEW));
+        });
+        fileBackedTaskManager.close();
+
+        File journal = TaskJournal.journalFor(file);
+        byte[] bytes = Files.readAllBytes(journal.toPath());
+        int commit = new String(bytes, StandardCharsets.UTF_8).indexOf("COMMIT");
+        Files.write(journal.toPath(), Arrays.copyOf(bytes, commit - 9));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertEquals(List.of(1), loaded.getAllTasks().stream().map(Task::getId).toList(),
+                "Недописанная транзакция восстановлена частично.");
+        loaded.close();
+    }
+
+    @Test
+    void journalTransactionOrderTest() throws IOException, InterruptedException {
+        File file = File.createTempFile("transactionOrder", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        AtomicInteger lastEpic = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            int seen = 0;
+            while (!done.get()) {
+                int epicId = lastEpic.get();
+                if (epicId != seen) {
+                    seen = epicId;
+                    fileBackedTaskManager.createSubtask(new SubTask("Под задача", "Описание", Status.NEW, epicId));
+                }
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 100; i++) {
+            fileBackedTaskManager.inTransaction(tx -> {
+                Epic epic = new Epic("Эпик");
+                tx.createEpic(epic);
+                lastEpic.set(epic.getId());
+                long deadline = System.nanoTime() + 1_000_000_000L;
+                while (writer.getState() != Thread.State.BLOCKED && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+            });
+        }
+        done.set(true);
+        writer.join();
+        fileBackedTaskManager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertEquals(fileBackedTaskManager.epics.keySet(), loaded.epics.keySet());
+        assertEquals(fileBackedTaskManager.subTasks, loaded.subTasks,
+                "Подзадача попала в журнал раньше эпика из транзакции.");
+        loaded.close();
+    }
+
+    @Test
+    void journalSaveDuringWritesTest() throws IOException, InterruptedException {
+        File file = File.createTempFile("saveRace", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            writers.add(new Thread(() -> {
+                for (int j = 0; j < 200; j++) {
+                    fileBackedTaskManager.createTask(new Task("задача", "описание", Status.NEW));
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        while (writers.stream().anyMatch(Thread::isAlive)) {
+            fileBackedTaskManager.save();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        fileBackedTaskManager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertEquals(800, loaded.getAllTasks().size(), "Записи, добавленные во время сохранения, потеряны.");
+        loaded.close();
+    }
+
+    @Test
+    void journalStatusRollupTest() throws IOException {
+        File file = File.createTempFile("rollup", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 3", "Описание", Status.NEW, 1));
+        fileBackedTaskManager.updateSubTask(new SubTask("Под задача 2", "Описание", 2, Status.DONE, 1));
+        fileBackedTaskManager.updateSubTask(new SubTask("Под задача 3", "Описание", 3, Status.DONE, 1));
+        fileBackedTaskManager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertEquals(Status.DONE, loaded.getByIdEpics(1).getStatus());
+        assertEquals(2, loaded.getByIdEpics(1).getSubTaskCount(Status.DONE));
+        loaded.deleteSubtaskById(3);
+        assertEquals(Status.DONE, loaded.getByIdEpics(1).getStatus());
+        loaded.updateSubTask(new SubTask("Под задача 2", "Описание", 2, Status.NEW, 1));
+        assertEquals(Status.NEW, loaded.getByIdEpics(1).getStatus());
+        loaded.close();
+    }
+
+    @Test
+    void saveFoldsJournalTest() throws IOException {
+        File file = File.createTempFile("journal", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 2", "Описание подзадачи 2", Status.NEW, 1));
+        fileBackedTaskManager.save();
+        fileBackedTaskManager.deleteSubtaskById(2);
+        fileBackedTaskManager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertTrue(loaded.getAllSubTask().isEmpty(), "Удаление из журнала не применено.");
+        assertFalse(new File(file.getPath() + ".journal").exists(), "Журнал не свёрнут в снимок.");
+    }
+
+    @Test
+    void journalReplayAfterSaveCrashTest() throws IOException {
+        File file = File.createTempFile("saveCrash", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1));
+        fileBackedTaskManager.createTask(new Task("задача 3", "описание", Status.NEW));
+        fileBackedTaskManager.save();
+        fileBackedTaskManager.updateSubTask(new SubTask("Под задача 2", "Описание", 2, Status.DONE, 1));
+        fileBackedTaskManager.deleteEpicById(1);
+        fileBackedTaskManager.flush();
+        File journal = TaskJournal.journalFor(file);
+        byte[] replayed = Files.readAllBytes(journal.toPath());
+        fileBackedTaskManager.save();
+        fileBackedTaskManager.close();
+
+        // Падение после записи снимка, но до усечения журнала и удаления свёрнутой части.
+        Files.write(journal.toPath(), replayed);
+        Files.write(TaskJournal.sealedFor(file).toPath(), replayed);
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertTrue(loaded.getAllEpics().isEmpty());
+        assertTrue(loaded.getAllSubTask().isEmpty(), "Подзадача удалённого эпика восстановлена из журнала.");
+        assertEquals(List.of(3), loaded.getAllTasks().stream().map(Task::getId).toList());
+        loaded.close();
+    }
+
+    @Test
+    void compactionTest() throws IOException {
+        File file = File.createTempFile("compaction", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL);
+        fileBackedTaskManager.setCompactionThresholds(Long.MAX_VALUE, 4);
+
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        for (int i = 0; i < 10; i++) {
+            fileBackedTaskManager.createTask(new Task("задача " + i, "описание " + i, Status.NEW));
+            fileBackedTaskManager.createSubtask(new SubTask("Под задача " + i, "Описание " + i, Status.DONE, 1));
+        }
+        fileBackedTaskManager.deleteTaskById(2);
+        fileBackedTaskManager.compact();
+        fileBackedTaskManager.createTask(new Task("задача после сжатия", "описание", Status.NEW));
+        fileBackedTaskManager.close();
+
+        assertFalse(TaskJournal.sealedFor(file).exists(), "Свёрнутый журнал не удалён.");
+        assertTrue(file.length() > 0, "Снимок не записан.");
+        assertEquals(1, new TaskJournal(TaskJournal.journalFor(file)).read().size(),
+                "Журнал не усечён после сжатия.");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL);
+        assertEquals(fileBackedTaskManager.tasks, loaded.tasks);
+        assertEquals(fileBackedTaskManager.epics, loaded.epics);
+        assertEquals(fileBackedTaskManager.subTasks, loaded.subTasks);
+        loaded.close();
+    }
+
+    @Test
+    void durabilityModesTest() throws IOException {
+        for (Durability durability : Durability.values()) {
+            File file = File.createTempFile("durability", "csv");
+            FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.JOURNAL,
+                    durability);
+            fileBackedTaskManager.setGroupCommit(1, 2);
+
+            fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+            fileBackedTaskManager.createSubtask(new SubTask("Под задача 2", "Описание подзадачи 2", Status.NEW, 1));
+            fileBackedTaskManager.createTask(new Task("задача 3", "описание задачи 3", Status.DONE));
+            fileBackedTaskManager.flush();
+
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.JOURNAL, durability);
+            assertEquals(fileBackedTaskManager.tasks, loaded.tasks, "Режим " + durability);
+            assertEquals(fileBackedTaskManager.epics, loaded.epics, "Режим " + durability);
+            assertEquals(fileBackedTaskManager.subTasks, loaded.subTasks, "Режим " + durability);
+            fileBackedTaskManager.close();
+            loaded.close();
+        }
+    }
+
+    @Test
+    void binarySnapshotTest() throws IOException {
+        File file = File.createTempFile("binary", ".bin");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file);
+        fileBackedTaskManager.setSnapshotFormat(SnapshotFormat.BINARY);
+
+        fileBackedTaskManager.createTask(new Task("задача 1", "описание, с запятой", Status.NEW,
+                LocalDateTime.of(2024, 5, 25, 9, 0), Duration.ofMinutes(15)));
+        fileBackedTaskManager.createEpic(new Epic("Эпик 2"));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 3", "Описание подзадачи 3", Status.DONE, 2,
+                LocalDateTime.of(2024, 5, 25, 10, 0), Duration.ofMinutes(30)));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 4", "Описание подзадачи 4", Status.NEW, 2));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(fileBackedTaskManager.tasks, loaded.tasks);
+        assertEquals(fileBackedTaskManager.epics, loaded.epics);
+        assertEquals(fileBackedTaskManager.subTasks, loaded.subTasks);
+        assertEquals(List.of(3, 4), loaded.getByIdEpics(2).getSubTaskEpicsId());
+        assertEquals(Status.IN_PROGRESS, loaded.getByIdEpics(2).getStatus());
+        assertEquals(LocalDateTime.of(2024, 5, 25, 10, 0), loaded.getByIdSubTasks(3).getStartTime());
+        assertEquals(2, loaded.getPrioritizedTasks().size());
+        assertEquals(5, loaded.id);
+    }
+
+    @Test
+    void writeBehindTest() throws IOException {
+        File file = File.createTempFile("writeBehind", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.WRITE_BEHIND);
+        fileBackedTaskManager.setWriteBehindInterval(60_000);
+
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        for (int i = 0; i < 100; i++) {
+            fileBackedTaskManager.createSubtask(new SubTask("Под задача " + i, "Описание " + i, Status.NEW, 1));
+        }
+        assertEquals(0, file.length(), "Снимок не должен писаться на каждую операцию.");
+
+        fileBackedTaskManager.flush();
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(fileBackedTaskManager.subTasks, loaded.subTasks);
+
+        fileBackedTaskManager.deleteSubtaskById(2);
+        fileBackedTaskManager.close();
+        loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(99, loaded.getAllSubTask().size(), "close() должен сохранить последние изменения.");
+    }
+
+    @Test
+    void segmentedTest() throws IOException {
+        File file = File.createTempFile("segmented", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.SEGMENTED);
+        fileBackedTaskManager.setSegmentSize(10);
+
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        for (int i = 2; i < 30; i++) {
+            fileBackedTaskManager.createTask(new Task("задача " + i, "описание " + i, Status.NEW));
+        }
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 30", "Описание", Status.DONE, 1));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 31", "Описание", Status.NEW, 1));
+
+        SegmentStore store = new SegmentStore(SegmentStore.directoryFor(file), 10);
+        assertEquals(List.of(0, 1, 2, 3), store.segments());
+        for (File segment : store.files()) {
+            assertTrue(segment.setLastModified(0));
+        }
+
+        fileBackedTaskManager.updateTask(new Task("задача 15", "новое описание", 15, Status.DONE));
+        assertTrue(store.fileOf(1).lastModified() > 0, "Изменённый сегмент не переписан.");
+        assertEquals(0, store.fileOf(0).lastModified(), "Незатронутый сегмент переписан.");
+        assertEquals(0, store.fileOf(2).lastModified(), "Незатронутый сегмент переписан.");
+        assertEquals(0, store.fileOf(3).lastModified(), "Незатронутый сегмент переписан.");
+
+        fileBackedTaskManager.deleteSubtaskById(31);
+        assertEquals(Status.DONE, FileBackedTaskManager.loadFromFile(file, StorageMode.SEGMENTED)
+                .getByIdEpics(1).getStatus(), "Эпик подзадачи не переписан.");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.SEGMENTED);
+        assertEquals(fileBackedTaskManager.tasks, loaded.tasks);
+        assertEquals(fileBackedTaskManager.epics, loaded.epics);
+        assertEquals(fileBackedTaskManager.subTasks, loaded.subTasks);
+        assertEquals(List.of(30), loaded.getByIdEpics(1).getSubTaskEpicsId());
+        assertEquals(31, loaded.id);
+
+        loaded.deleteEpicById(1);
+        loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.SEGMENTED);
+        assertTrue(loaded.getAllSubTask().isEmpty(), "Подзадачи удалённого эпика остались в сегментах.");
+        assertFalse(store.fileOf(3).exists(), "Пустой сегмент не удалён.");
+    }
+
+    @Test
+    void segmentedOrphanRecoveryTest() throws IOException {
+        File file = File.createTempFile("segmented", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, StorageMode.SEGMENTED);
+        fileBackedTaskManager.setSegmentSize(10);
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        for (int i = 2; i < 12; i++) {
+            fileBackedTaskManager.createTask(new Task("задача " + i, "описание " + i, Status.NEW));
+        }
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 12", "Описание", Status.NEW, 1));
+
+        SegmentStore store = new SegmentStore(SegmentStore.directoryFor(file), 10);
+        byte[] subTaskSegment = Files.readAllBytes(store.fileOf(1).toPath());
+        fileBackedTaskManager.deleteEpicById(1);
+        Files.write(store.fileOf(1).toPath(), subTaskSegment);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.SEGMENTED);
+        assertTrue(loaded.getAllSubTask().isEmpty(), "Подзадача без эпика должна отбрасываться при загрузке.");
+        assertEquals(10, loaded.getAllTasks().size());
+        loaded.createTask(new Task("задача 13", "описание 13", Status.NEW));
+        assertTrue(FileBackedTaskManager.loadFromFile(file, StorageMode.SEGMENTED).subTasks.isEmpty(),
+                "Подзадача без эпика не удалена из сегмента при следующей записи.");
+    }
+
+    @Test
+    void segmentedMigrationTest() throws IOException {
+        File file = File.createTempFile("segmented", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file);
+        fileBackedTaskManager.createEpic(new Epic("Эпик 1"));
+        fileBackedTaskManager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageMode.SEGMENTED);
+        assertTrue(SegmentStore.directoryFor(file).isDirectory(), "Снимок не перенесён в сегменты.");
+        assertEquals(fileBackedTaskManager.subTasks, loaded.subTasks);
+        assertEquals(fileBackedTaskManager.epics,
+                FileBackedTaskManager.loadFromFile(file, StorageMode.SEGMENTED).epics);
+    }
+
+    @Test
+    void damagedSnapshotTest() throws IOException {
+        File file = File.createTempFile("damaged", "csv");
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file);
+        fileBackedTaskManager.createTask(new Task("задача 1", "описание задачи 1", Status.NEW));
+        fileBackedTaskManager.createTask(new Task("задача 2", "описание задачи 2", Status.NEW));
+        assertFalse(new File(file.getPath() + ".tmp").exists(), "Временный файл снимка не переименован.");
+
+        try (Writer writer = new FileWriter(file, StandardCharsets.UTF_8, true)) {
+            writer.write("3,TASK,задача 3,НОВАЯ\n4,TASK,задача 4,NEW,описание\n");
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(List.of(1, 2), loaded.getAllTasks().stream().map(Task::getId).toList());
+        assertEquals(3, loaded.id);
+    }
+}
@@ -1,11 +1,60 @@
 package service.managers;
 
+import model.BulkResult;
+import model.enums.Status;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
 import org.junit.jupiter.api.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
 
     @BeforeEach
     void setUp() {
         manager = new InMemoryTaskManager();
     }
-}
\ No newline at end of file
+
+    @Test
+    void bulkUpdateSwapSlotsTest() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        manager.createEpic(new Epic("Эпик"));
+        manager.createSubtask(new SubTask("Под задача 1", "Описание", Status.NEW, 1, start, Duration.ofHours(1)));
+        manager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1,
+                start.plusHours(1), Duration.ofHours(1)));
+
+        BulkResult<SubTask> result = manager.updateSubTasks(List.of(
+                new SubTask(2, "Под задача 1", Status.DONE, "Описание", 1, start.plusHours(1), Duration.ofHours(1)),
+                new SubTask(3, "Под задача 2", Status.DONE, "Описание", 1, start, Duration.ofHours(1))));
+
+        assertTrue(result.getFailures().isEmpty(), "Обмен слотами внутри пакета не должен считаться пересечением.");
+        assertEquals(List.of(3, 2), manager.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void bulkUpdateRejectedMoveKeepsSlotTest() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        manager.createEpic(new Epic("Эпик"));
+        manager.createSubtask(new SubTask("Под задача 1", "Описание", Status.NEW, 1, start, Duration.ofHours(1)));
+        manager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1,
+                start.plusHours(1), Duration.ofHours(1)));
+        manager.createTask(new Task("Задача", "Описание", Status.NEW, start.plusHours(3), Duration.ofHours(1)));
+
+        BulkResult<SubTask> result = manager.updateSubTasks(List.of(
+                new SubTask(2, "Под задача 1", Status.DONE, "Описание", 1, start.plusHours(1), Duration.ofHours(1)),
+                new SubTask(3, "Под задача 2", Status.DONE, "Описание", 1,
+                        start.plusHours(3), Duration.ofHours(1))));
+
+        assertEquals(Set.of(0, 1), result.getFailures().keySet(),
+                "Слот отклонённой задачи должен остаться за ней.");
+        assertEquals(start, manager.getByIdSubTasks(2).getStartTime());
+        assertEquals(start.plusHours(1), manager.getByIdSubTasks(3).getStartTime());
+        assertEquals(List.of(2, 3, 4), manager.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+}
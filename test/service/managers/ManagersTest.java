@@ -14,6 +14,25 @@ class ManagersTest {
         assertNotNull(manager);
     }
 
+    @Test
+    void getConcurrent() {
+        TaskManager manager = Managers.getConcurrent();
+        assertInstanceOf(ConcurrentTaskManager.class, manager);
+    }
+
+    @Test
+    void getCommandLoop() {
+        TaskManager manager = Managers.getCommandLoop();
+        assertInstanceOf(CommandLoopTaskManager.class, manager);
+        ((CommandLoopTaskManager) manager).close();
+    }
+
+    @Test
+    void getSnapshot() {
+        TaskManager manager = Managers.getSnapshot();
+        assertInstanceOf(SnapshotTaskManager.class, manager);
+    }
+
     @Test
     void getDefaultHistory() {
         HistoryManager manager = Managers.getDefaultHistory();
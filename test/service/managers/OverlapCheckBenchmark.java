@@ -0,0 +1,46 @@
+package service.managers;
+
+import model.enums.Status;
+import model.tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class OverlapCheckBenchmark {
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final int MAX_LEGACY_SIZE = 10_000;
+
+    public static void main(String[] args) {
+        for (int size : SIZES) {
+            report("соседи", size, fill(new InMemoryTaskManager(), size));
+            if (size <= MAX_LEGACY_SIZE) {
+                report("полный обход", size, fill(new LegacyTaskManager(), size));
+            } else {
+                System.out.printf("%-14s %,10d задач: пропущено, O(n^2)%n", "полный обход", size);
+            }
+        }
+    }
+
+    private static long fill(InMemoryTaskManager manager, int size) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        long begin = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            long slot = (i * 7919L) % size;
+            manager.createTask(new Task("задача " + i, "описание", Status.NEW, start.plusMinutes(slot * 60),
+                    Duration.ofMinutes(45)));
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static void report(String name, int size, long nanos) {
+        System.out.printf("%-14s %,10d задач: %,8d мс, %,8.0f нс на задачу%n", name, size, nanos / 1_000_000,
+                (double) nanos / size);
+    }
+
+    private static class LegacyTaskManager extends InMemoryTaskManager {
+        @Override
+        public boolean startCheckTaskOverlap(Task task) {
+            return prioritizedIndex.values().stream().noneMatch(taskIn -> checkTaskOverlap(taskIn, task));
+        }
+    }
+}
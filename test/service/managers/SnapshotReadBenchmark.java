@@ -0,0 +1,69 @@
+package service.managers;
+
+import model.enums.Status;
+import model.tasks.Task;
+import service.interfaces.TaskManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SnapshotReadBenchmark {
+    private static final int TASKS = 10_000;
+    private static final long MILLIS = 2_000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int readers = 1; readers <= Math.max(4, cores); readers *= 2) {
+            report("блокировки", readers, run(new ConcurrentTaskManager(), readers));
+            report("снимки", readers, run(new SnapshotTaskManager(), readers));
+        }
+    }
+
+    private static long run(TaskManager manager, int readers) throws InterruptedException {
+        for (int i = 0; i < TASKS; i++) {
+            manager.createTask(new Task("задача " + i, "описание", Status.NEW, START.plusHours(i),
+                    Duration.ofMinutes(30)));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                long sum = 0;
+                while (running.get()) {
+                    sum += manager.getAllTasks().get(TASKS / 2).getId();
+                    sum += manager.getPrioritizedTasks().size();
+                    reads.add(2);
+                }
+                if (sum == 42) {
+                    System.out.print("");
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            int i = 0;
+            while (running.get()) {
+                int id = 1 + i++ % TASKS;
+                manager.updateTask(new Task(id, "задача " + id, Status.IN_PROGRESS, "описание",
+                        START.plusHours(id - 1), Duration.ofMinutes(30)));
+            }
+        }));
+        threads.forEach(Thread::start);
+        Thread.sleep(MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return reads.sum();
+    }
+
+    private static void report(String name, int readers, long reads) {
+        System.out.printf("%-11s %2d читателей: %,12.0f чтений в секунду%n", name, readers,
+                reads * 1000.0 / MILLIS);
+    }
+}
@@ -0,0 +1,43 @@
+package service.managers;
+
+import model.enums.Status;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTaskManagerTest extends TaskManagerTest<SnapshotTaskManager> {
+
+    @BeforeEach
+    void setUp() {
+        manager = new SnapshotTaskManager();
+    }
+
+    @Test
+    void snapshotIsolationTest() {
+        addDefaultTasks();
+        List<Task> tasks = manager.getAllTasks();
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        Epic epic = manager.getByIdEpics(4);
+
+        manager.deleteTaskById(1);
+        manager.createTask(new Task("задача", "описание", Status.NEW, LocalDateTime.of(2024, 5, 26, 10, 0),
+                Duration.ofMinutes(30)));
+        manager.updateSubTask(new SubTask(10, "Под задача 4", Status.DONE, "Описание подзадачи 4", 4));
+
+        assertEquals(3, tasks.size(), "Прежний снимок изменился после записи.");
+        assertEquals(3, prioritized.size());
+        assertEquals(Status.NEW, epic.getStatus(), "Опубликованный эпик изменён на месте.");
+        assertEquals(2, epic.getSubTaskIds().size());
+        assertEquals(Status.IN_PROGRESS, manager.getByIdEpics(4).getStatus());
+        assertEquals(3, manager.getAllTasks().size());
+        assertEquals(3, manager.getPrioritizedTasks().size());
+    }
+}
@@ -1,6 +1,10 @@
 package service.managers;
 
+import exception.TaskNotFoundException;
+import exception.TimeOverlapException;
+import model.BulkResult;
 import model.enums.Status;
+import model.enums.Type;
 import model.tasks.Epic;
 import model.tasks.SubTask;
 import model.tasks.Task;
@@ -11,6 +15,7 @@ import service.interfaces.TaskManager;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,6 +60,52 @@ abstract class TaskManagerTest<T extends TaskManager> {
                 Duration.ofMinutes(30))), "Пересечение не должно приводить к исключению");
     }
 
+    @Test
+    void overlapNeighborsTest() {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 25, 10, 0);
+        manager.createTask(new Task("задача 1", "описание", Status.NEW, start, Duration.ofMinutes(60)));
+        manager.createTask(new Task("задача 2", "описание", Status.NEW, start.plusHours(3), Duration.ofMinutes(60)));
+
+        assertDoesNotThrow(() -> manager.createTask(new Task("встык после", "описание", Status.NEW,
+                start.plusHours(1), Duration.ofMinutes(30))));
+        assertDoesNotThrow(() -> manager.createTask(new Task("встык до", "описание", Status.NEW,
+                start.minusMinutes(30), Duration.ofMinutes(30))));
+        assertThrows(TimeOverlapException.class, () -> manager.createTask(new Task("внутри", "описание",
+                Status.NEW, start.plusMinutes(10), Duration.ofMinutes(10))));
+        assertThrows(TimeOverlapException.class, () -> manager.createTask(new Task("накрывает всё", "описание",
+                Status.NEW, start.minusHours(2), Duration.ofHours(10))));
+        assertThrows(TimeOverlapException.class, () -> manager.createTask(new Task("хвост", "описание",
+                Status.NEW, start.plusMinutes(150), Duration.ofMinutes(60))));
+
+        Task moved = new Task(2, "задача 2", Status.NEW, "описание", start.plusMinutes(190), Duration.ofMinutes(60));
+        assertDoesNotThrow(() -> manager.updateTask(moved), "Задача не должна пересекаться сама с собой.");
+        assertThrows(TimeOverlapException.class, () -> manager.updateTask(new Task(2, "задача 2", Status.NEW,
+                "описание", start.plusMinutes(80), Duration.ofMinutes(60))));
+        assertEquals(4, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void prioritizedConsistencyTest() {
+        LocalDateTime start = LocalDateTime.of(2024, 6, 1, 10, 0);
+        addDefaultTasks();
+        manager.createTask(new Task("задача с временем", "описание", Status.NEW, start, Duration.ofMinutes(30)));
+        manager.createTask(new Task("в то же время", "описание", Status.NEW, start, Duration.ZERO));
+        assertEquals(5, manager.getPrioritizedTasks().size(), "Задачи с одинаковым началом потеряны.");
+
+        manager.updateTask(new Task(14, "в то же время", Status.NEW, "описание"));
+        assertEquals(4, manager.getPrioritizedTasks().size(), "Задача без времени осталась в списке.");
+
+        manager.deleteSubtaskById(10);
+        assertEquals(3, manager.getPrioritizedTasks().size(), "Удалённая подзадача осталась в списке.");
+
+        manager.deleteAllEpics();
+        assertEquals(List.of(13), manager.getPrioritizedTasks().stream().map(Task::getId).toList(),
+                "Удаление эпиков не должно затрагивать обычные задачи.");
+
+        manager.deleteAllTasks();
+        assertTrue(manager.getPrioritizedTasks().isEmpty(), "Удалённые задачи остались в списке.");
+    }
+
     @Test
     void getPrioritizedTasks() {
         addDefaultTasks();
@@ -148,6 +199,26 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(manager.getAllSubTask().isEmpty(), "Подзадачи не удалены");
     }
 
+    @Test
+    void getByIdTest() {
+        addDefaultTasks();
+
+        assertEquals(Type.TASK, manager.getById(1).getType());
+        assertEquals(Type.EPIC, manager.getById(4).getType());
+        assertEquals(Type.SUBTASK, manager.getById(10).getType());
+        assertEquals(3, manager.getHistory().size());
+
+        assertNull(manager.getByIdTasks(4), "Эпик не должен возвращаться как задача.");
+        assertNull(manager.getByIdEpics(10), "Подзадача не должна возвращаться как эпик.");
+        assertEquals(3, manager.getHistory().size(), "Неподходящий тип не должен попадать в историю.");
+
+        manager.deleteEpicById(4);
+        assertNull(manager.getById(4));
+        assertNull(manager.getById(10), "Подзадачи удалённого эпика должны удаляться из общего индекса.");
+        manager.deleteAllTasks();
+        assertNull(manager.getById(1));
+    }
+
     @Test
     void getByIdTasks() {
         addDefaultTasks();
@@ -398,4 +469,279 @@ abstract class TaskManagerTest<T extends TaskManager> {
                 Status.IN_PROGRESS, 1));
         assertEquals(manager.getByIdEpics(16).getStatus(), Status.IN_PROGRESS, "Статус не обновился.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void bulkCreateTest() {
+        LocalDateTime start = LocalDateTime.of(2024, 8, 1, 10, 0);
+        manager.createTask(new Task("существующая", "описание", Status.NEW, start.plusHours(5),
+                Duration.ofMinutes(60)));
+        BulkResult<Task> result = manager.createTasks(List.of(
+                new Task("первая", "описание", Status.NEW, start, Duration.ofMinutes(60)),
+                new Task("пересекает первую", "описание", Status.NEW, start.plusMinutes(30), Duration.ofMinutes(60)),
+                new Task("без времени", "описание", Status.NEW),
+                new Task("пересекает существующую", "описание", Status.NEW, start.plusMinutes(330),
+                        Duration.ofMinutes(60))));
+
+        assertFalse(result.isSuccess());
+        assertEquals(Set.of(1, 3), result.getFailures().keySet(), "Ошибки должны указывать на позиции в пакете.");
+        assertInstanceOf(TimeOverlapException.class, result.getFailures().get(1));
+        assertInstanceOf(TimeOverlapException.class, result.getFailures().get(3));
+        assertEquals(List.of(2, 4), result.getAccepted().stream().map(Task::getId).toList());
+        assertEquals(3, manager.getAllTasks().size());
+        assertEquals(List.of(2, 1), manager.getPrioritizedTasks().stream().map(Task::getId).toList());
+
+        manager.createEpic(new Epic("Эпик"));
+        BulkResult<SubTask> subTasks = manager.createSubtasks(List.of(
+                new SubTask("Под задача 1", "Описание", Status.DONE, 6),
+                new SubTask("Под задача 2", "Описание", Status.DONE, 99),
+                new SubTask("Под задача 3", "Описание", Status.DONE, 6, start.plusHours(2), Duration.ofMinutes(30))));
+        assertEquals(Set.of(1), subTasks.getFailures().keySet());
+        assertInstanceOf(TaskNotFoundException.class, subTasks.getFailures().get(1));
+        assertEquals(List.of(7, 9), manager.getByIdEpics(6).getSubTaskEpicsId());
+        assertEquals(Status.DONE, manager.getByIdEpics(6).getStatus());
+        assertEquals(start.plusHours(2), manager.getByIdEpics(6).getStartTime());
+    }
+
+    @Test
+    void bulkUpdateSubTasksTest() {
+        manager.createEpic(new Epic("Эпик а"));
+        manager.createEpic(new Epic("Эпик b"));
+        manager.createSubtask(new SubTask("Под задача 1", "Описание", Status.NEW, 1));
+        manager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1));
+
+        BulkResult<SubTask> result = manager.updateSubTasks(List.of(
+                new SubTask("Под задача 1", "Описание", 3, Status.DONE, 2),
+                new SubTask("Под задача 2", "Описание", 4, Status.DONE, 1),
+                new SubTask("Нет такой", "Описание", 99, Status.DONE, 1)));
+
+        assertEquals(Set.of(2), result.getFailures().keySet());
+        assertInstanceOf(TaskNotFoundException.class, result.getFailures().get(2));
+        assertEquals(List.of(4), manager.getByIdEpics(1).getSubTaskEpicsId());
+        assertEquals(List.of(3), manager.getByIdEpics(2).getSubTaskEpicsId());
+        assertEquals(Status.DONE, manager.getByIdEpics(1).getStatus());
+        assertEquals(Status.DONE, manager.getByIdEpics(2).getStatus());
+    }
+
+    @Test
+    void statusIndexTest() {
+        addDefaultTasks();
+        assertEquals(List.of(1), ids(manager.getByStatus(Type.TASK, Status.NEW)));
+        assertEquals(List.of(7, 8, 9, 10, 11, 12), ids(manager.getByStatus(Type.SUBTASK, Status.NEW)));
+        assertEquals(List.of(1, 4, 5, 6, 7, 8, 9, 10, 11, 12), ids(manager.getByStatus(Status.NEW)));
+
+        SubTask subTask = manager.getByIdSubTasks(7);
+        subTask.setStatus(Status.IN_PROGRESS);
+        manager.updateSubTask(subTask);
+        manager.updateSubTask(new SubTask(10, "Под задача 4", Status.DONE, "Описание подзадачи 4", 4));
+        manager.updateTask(new Task("задача 1", "описание задачи 1", 1, Status.DONE));
+        assertEquals(List.of(7), ids(manager.getByStatus(Type.SUBTASK, Status.IN_PROGRESS)));
+        assertEquals(List.of(3, 4, 7), ids(manager.getByStatus(Status.IN_PROGRESS)),
+                "Статус эпика не переиндексирован после пересчёта.");
+        assertEquals(List.of(1, 2, 10), ids(manager.getByStatus(Status.DONE)));
+
+        manager.deleteEpicById(4);
+        manager.deleteTaskById(2);
+        assertEquals(List.of(1), ids(manager.getByStatus(Status.DONE)));
+        manager.deleteAllSubTasks();
+        assertTrue(manager.getByStatus(Type.SUBTASK, Status.NEW).isEmpty());
+        assertEquals(List.of(5, 6), ids(manager.getByStatus(Type.EPIC, Status.NEW)));
+    }
+
+    @Test
+    void prioritizedWindowTest() {
+        addDefaultTasks();
+        LocalDateTime start = LocalDateTime.of(2024, 5, 25, 10, 15);
+        List<Task> all = manager.getPrioritizedTasks();
+
+        assertEquals(all, manager.getPrioritizedTasks(null, null));
+        List<Task> window = manager.getPrioritizedTasks(start, start.plusDays(1));
+        assertFalse(window.isEmpty());
+        for (Task task : window) {
+            assertTrue(task.getStartTime().isBefore(start.plusDays(1)));
+            assertTrue(task.getEndTime().isAfter(start), "Задача закончилась до начала окна.");
+        }
+        assertEquals(10, window.get(0).getId(), "Подзадача, идущая в момент начала окна, должна попасть в выборку.");
+        assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(start, start.minusHours(1)));
+
+        List<Task> page = manager.nextScheduled(null, 1);
+        assertEquals(List.of(all.get(0)), page);
+        List<Task> rest = manager.nextScheduled(page.get(0).getStartTime(), all.size());
+        assertEquals(all.subList(1, all.size()), rest);
+        assertThrows(IllegalArgumentException.class, () -> manager.nextScheduled(null, 0));
+    }
+
+    @Test
+    void findFreeSlotTest() {
+        addDefaultTasks();
+        LocalDateTime day = LocalDateTime.of(2024, 5, 25, 0, 0);
+
+        assertEquals(day.withHour(10).withMinute(30),
+                manager.findFreeSlot(Duration.ofMinutes(60), day.withHour(10).withMinute(15), null),
+                "Окно не должно пересекаться с подзадачей, идущей в момент его начала.");
+        assertEquals(day.withHour(10).withMinute(30),
+                manager.findFreeSlot(Duration.ofHours(4), day.withHour(10), null));
+        assertEquals(day.withHour(15).withMinute(30),
+                manager.findFreeSlot(Duration.ofMinutes(255), day.withHour(11), null));
+        assertEquals(day.withHour(20).withMinute(30),
+                manager.findFreeSlot(Duration.ofHours(5), day.withHour(10), null));
+        assertNull(manager.findFreeSlot(Duration.ofHours(5), day.withHour(10), day.withHour(23)));
+
+        LocalDateTime slot = manager.findFreeSlot(Duration.ofMinutes(255), day.withHour(11), null);
+        assertDoesNotThrow(() -> manager.createTask(new Task("задача 4", "описание задачи 4", Status.NEW,
+                slot, Duration.ofMinutes(255))), "Найденное окно должно быть свободно.");
+        assertEquals(day.withHour(20).withMinute(30),
+                manager.findFreeSlot(Duration.ofMinutes(255), day.withHour(11), null));
+        assertThrows(IllegalArgumentException.class, () -> manager.findFreeSlot(Duration.ofMinutes(30), null, null));
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void transactionCommitTest() {
+        addDefaultTasks();
+        manager.inTransaction(tx -> {
+            tx.updateSubTask(new SubTask(7, "Под задача 1", Status.DONE, "Описание подзадачи 1", 5));
+            tx.updateSubTask(new SubTask(8, "Под задача 2", Status.DONE, "Описание подзадачи 2", 5));
+            tx.updateSubTask(new SubTask(11, "Под задача 5", Status.DONE, "Описание подзадачи 5", 5,
+                    LocalDateTime.of(2024, 5, 26, 15, 0), Duration.ofMinutes(30)));
+            tx.deleteEpicById(6);
+        });
+
+        assertEquals(List.of(7, 8, 11), manager.getByIdEpics(5).getSubTaskEpicsId());
+        assertEquals(Status.DONE, manager.getByIdEpics(5).getStatus());
+        assertEquals(List.of(10), manager.getByIdEpics(4).getSubTaskEpicsId());
+        assertNull(manager.getByIdEpics(6));
+        assertEquals(2, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void transactionRollbackTest() {
+        addDefaultTasks();
+        List<Task> tasks = manager.getAllTasks();
+        List<SubTask> subTasks = manager.getAllSubTask();
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        manager.getById(1);
+
+        assertThrows(TimeOverlapException.class, () -> manager.inTransaction(tx -> {
+            tx.updateSubTask(new SubTask(7, "Под задача 1", Status.DONE, "Описание подзадачи 1", 5));
+            tx.deleteTaskById(1);
+            tx.deleteSubtaskById(12);
+            tx.createTask(new Task("новая", "описание", Status.NEW, LocalDateTime.of(2024, 5, 26, 10, 0),
+                    Duration.ofMinutes(30)));
+            tx.createTask(new Task("пересечение", "описание", Status.NEW, LocalDateTime.of(2024, 5, 25, 10, 15),
+                    Duration.ofMinutes(30)));
+        }));
+
+        assertEquals(tasks, manager.getAllTasks(), "Откат не вернул задачи.");
+        assertEquals(subTasks, manager.getAllSubTask());
+        assertEquals(prioritized, manager.getPrioritizedTasks());
+        assertEquals(List.of(7, 10), manager.getByIdEpics(4).getSubTaskEpicsId());
+        assertEquals(List.of(9, 12), manager.getByIdEpics(6).getSubTaskEpicsId());
+        assertEquals(Status.NEW, manager.getByIdEpics(5).getStatus());
+        assertEquals(0, manager.getByIdEpics(4).getSubTaskCount(Status.DONE));
+        assertEquals(1, manager.getHistory().get(0).getId(), "Откат не вернул историю.");
+        assertNull(manager.getById(13), "Созданная в откаченной транзакции задача осталась.");
+        manager.createTask(new Task("после отката", "описание", Status.NEW));
+        assertEquals(13, manager.getAllTasks().get(3).getId());
+    }
+
+    @Test
+    void transactionRollbackRestoresChangedReferencesTest() {
+        addDefaultTasks();
+
+        assertThrows(IllegalStateException.class, () -> manager.inTransaction(tx -> {
+            tx.getByIdTasks(1).setStatus(Status.DONE);
+            tx.getAllSubTask().get(0).setName("изменена");
+            throw new IllegalStateException("отмена");
+        }));
+
+        assertEquals(Status.NEW, manager.getByIdTasks(1).getStatus(), "Откат не вернул статус задачи.");
+        assertEquals("Под задача 1", manager.getByIdSubTasks(7).getName(), "Откат не вернул имя подзадачи.");
+    }
+
+    @Test
+    void statusRollupTest() {
+        manager.createEpic(new Epic("Эпик а"));
+        manager.createEpic(new Epic("Эпик b"));
+        manager.createSubtask(new SubTask("Под задача 1", "Описание", Status.NEW, 1));
+        manager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1));
+
+        SubTask subTask = manager.getByIdSubTasks(3);
+        subTask.setStatus(Status.DONE);
+        manager.updateSubTask(subTask);
+        assertEquals(Status.IN_PROGRESS, manager.getByIdEpics(1).getStatus());
+        assertEquals(1, manager.getByIdEpics(1).getSubTaskCount(Status.DONE));
+
+        manager.updateSubTask(new SubTask("Под задача 2", "Описание", 4, Status.DONE, 1));
+        assertEquals(Status.DONE, manager.getByIdEpics(1).getStatus());
+
+        manager.updateSubTask(new SubTask("Под задача 2", "Описание", 4, Status.IN_PROGRESS, 2));
+        assertEquals(Status.DONE, manager.getByIdEpics(1).getStatus(), "Статус прежнего эпика не пересчитан.");
+        assertEquals(Status.IN_PROGRESS, manager.getByIdEpics(2).getStatus());
+        assertEquals(List.of(4), manager.getByIdEpics(2).getSubTaskEpicsId());
+
+        manager.updateEpic(new Epic(1, "Обнов.Эпик а", Status.NEW));
+        assertEquals(Status.DONE, manager.getByIdEpics(1).getStatus(), "Счётчики потеряны при обновлении эпика.");
+
+        manager.deleteSubtaskById(3);
+        assertEquals(Status.NEW, manager.getByIdEpics(1).getStatus());
+        assertEquals(0, manager.getByIdEpics(1).getSubTaskCount(Status.DONE));
+
+        manager.deleteAllSubTasks();
+        assertEquals(Status.NEW, manager.getByIdEpics(2).getStatus());
+        assertEquals(0, manager.getByIdEpics(2).getSubTaskCount(Status.IN_PROGRESS));
+    }
+
+    @Test
+    void epicTimelineTest() {
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 10, 0);
+        manager.createEpic(new Epic("Эпик а"));
+        manager.createSubtask(new SubTask("Под задача 1", "Описание", Status.NEW, 1, start,
+                Duration.ofMinutes(60)));
+        manager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1, start.plusHours(2),
+                Duration.ofMinutes(60)));
+        manager.createSubtask(new SubTask("Под задача 3", "Описание", Status.NEW, 1, start.plusHours(3),
+                Duration.ZERO));
+        Epic epic = manager.getByIdEpics(1);
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusHours(3), epic.getEndTime());
+        assertEquals(Duration.ofHours(3), epic.getDuration());
+
+        manager.updateSubTask(new SubTask(2, "Под задача 1", Status.NEW, "Описание", 1, start.plusHours(5),
+                Duration.ofMinutes(60)));
+        epic = manager.getByIdEpics(1);
+        assertEquals(start.plusHours(2), epic.getStartTime(), "Начало эпика не пересчитано после переноса.");
+        assertEquals(start.plusHours(6), epic.getEndTime());
+
+        manager.deleteSubtaskById(2);
+        manager.deleteSubtaskById(3);
+        epic = manager.getByIdEpics(1);
+        assertEquals(start.plusHours(3), epic.getStartTime());
+        assertEquals(start.plusHours(3), epic.getEndTime(), "Совпадающие окончания должны учитываться оба.");
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+
+    @Test
+    void epicTimelineClearedTest() {
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 10, 0);
+        manager.createEpic(new Epic("Эпик а"));
+        manager.createSubtask(new SubTask("Под задача 1", "Описание", Status.NEW, 1, start,
+                Duration.ofMinutes(60)));
+        manager.createSubtask(new SubTask("Под задача 2", "Описание", Status.NEW, 1, start.plusHours(2),
+                Duration.ofMinutes(30)));
+        manager.createSubtask(new SubTask("Под задача 3", "Описание", Status.NEW, 1));
+
+        manager.updateSubTask(new SubTask("Под задача 1", "Описание", 2, Status.NEW, 1));
+        Epic epic = manager.getByIdEpics(1);
+        assertEquals(start.plusHours(2), epic.getStartTime());
+        assertEquals(Duration.ofMinutes(30), epic.getDuration());
+
+        manager.deleteSubtaskById(3);
+        epic = manager.getByIdEpics(1);
+        assertNull(epic.getStartTime(), "У эпика без подзадач со временем осталось начало.");
+        assertNull(epic.getEndTime());
+        assertNull(epic.getDuration());
+    }
+}
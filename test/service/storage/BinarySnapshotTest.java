@@ -0,0 +1,103 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+import model.enums.SnapshotFormat;
+import model.enums.Status;
+import model.enums.Type;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+    @Test
+    void randomAccessTest() throws IOException {
+        File file = File.createTempFile("snapshot", ".bin");
+        Task task = new Task(5, "задача 5", Status.DONE, null, LocalDateTime.of(2024, 1, 1, 8, 30, 15),
+                Duration.ofSeconds(90));
+        Epic epic = new Epic(1, "Эпик 1", Status.NEW);
+        SubTask subTask = new SubTask(3, "Под задача 3", Status.IN_PROGRESS, "описание", 1);
+        BinarySnapshot.write(file, List.of(task, epic, subTask), false);
+
+        assertTrue(BinarySnapshot.isBinary(file));
+        try (BinarySnapshot snapshot = BinarySnapshot.open(file)) {
+            assertEquals(3, snapshot.size());
+            assertEquals(List.of(1, 3, 5), List.of(snapshot.getId(0), snapshot.getId(1), snapshot.getId(2)));
+            assertEquals(Type.SUBTASK, snapshot.getType(1));
+            assertNull(snapshot.find(4));
+
+            Task found = snapshot.find(5);
+            assertEquals(task, found);
+            assertNull(found.getDescription());
+            assertEquals(task.getStartTime(), found.getStartTime());
+            assertEquals(task.getDuration(), found.getDuration());
+            assertEquals(1, ((SubTask) snapshot.find(3)).getIdEpic());
+            assertEquals(epic, snapshot.find(1));
+        }
+    }
+
+    @Test
+    void versionTest() throws IOException {
+        File file = File.createTempFile("snapshot", ".bin");
+        BinarySnapshot.write(file, List.of(), false);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[5] = (byte) (BinarySnapshot.VERSION + 1);
+        Files.write(file.toPath(), bytes);
+
+        assertThrows(ManagerSaveException.class, () -> BinarySnapshot.open(file));
+    }
+
+    @Test
+    void convertTest() throws IOException {
+        File csv = File.createTempFile("convert", ".csv");
+        File binary = File.createTempFile("convert", ".bin");
+        File back = File.createTempFile("convert", ".csv");
+        List<String> lines = List.of(
+                "id,type,name,status,description,epic,startTime,duration",
+                "1,TASK,задача 1,NEW,описание задачи 1,2024-05-25T09:00,PT15M",
+                "2,EPIC,Эпик 2,DONE,2024-05-25T10:00,PT30M",
+                "3,SUBTASK,Под задача 3,DONE,Описание подзадачи 3,2,2024-05-25T10:00,PT30M");
+        Files.write(csv.toPath(), lines, StandardCharsets.UTF_8);
+
+        SnapshotConverter.convert(csv, binary, SnapshotFormat.BINARY);
+        assertTrue(BinarySnapshot.isBinary(binary));
+        SnapshotConverter.convert(binary, back, SnapshotFormat.CSV);
+
+        assertEquals(lines, Files.readAllLines(back.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void checksumTest() throws IOException {
+        File file = File.createTempFile("snapshot", ".bin");
+        BinarySnapshot.write(file, List.of(new Task(1, "задача 1", Status.NEW, "описание 1"),
+                new Task(2, "задача 2", Status.NEW, "описание 2"),
+                new Task(3, "задача 3", Status.NEW, "описание 3")), false);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        byte[] description = "описание 2".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i <= bytes.length - description.length; i++) {
+            if (Arrays.equals(bytes, i, i + description.length, description, 0, description.length)) {
+                bytes[i + description.length - 1] = '3';
+            }
+        }
+        Files.write(file.toPath(), bytes);
+
+        try (BinarySnapshot snapshot = BinarySnapshot.open(file)) {
+            assertTrue(snapshot.verify(0));
+            assertFalse(snapshot.verify(1), "Повреждение строки не обнаружено.");
+            assertThrows(ManagerSaveException.class, () -> snapshot.find(2));
+        }
+        assertEquals(List.of(1), new ParallelTaskLoader().load(file).stream().map(Task::getId).toList());
+    }
+}
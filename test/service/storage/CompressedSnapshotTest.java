@@ -0,0 +1,70 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+import model.enums.SnapshotFormat;
+import model.enums.Status;
+import model.tasks.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedSnapshotTest {
+
+    @Test
+    void blockAccessTest() throws IOException {
+        File file = File.createTempFile("compressed", ".kbz");
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 1_000; id++) {
+            tasks.add(new Task(id, "Подготовить квартальный отчёт " + id, Status.NEW,
+                    "Собрать данные по всем отделам и согласовать с руководством " + id));
+        }
+        Files.write(file.toPath(), CompressedSnapshot.encode(tasks, 100, 6));
+
+        assertTrue(CompressedSnapshot.isCompressed(file));
+        assertFalse(BinarySnapshot.isBinary(file));
+        try (CompressedSnapshot snapshot = CompressedSnapshot.open(file)) {
+            assertEquals(10, snapshot.blocks());
+            assertTrue(file.length() < snapshot.getRawSize() / 3, "Данные почти не сжались.");
+            assertEquals(tasks.get(536), snapshot.find(537));
+            assertNull(snapshot.find(1_001));
+            assertEquals(tasks.subList(900, 1_000), snapshot.readBlock(9));
+        }
+        assertEquals(tasks, new ParallelTaskLoader().load(file));
+    }
+
+    @Test
+    void damagedBlockTest() throws IOException {
+        File file = File.createTempFile("compressed", ".kbz");
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 30; id++) {
+            tasks.add(new Task(id, "задача " + id, Status.DONE, "описание " + id));
+        }
+        byte[] bytes = CompressedSnapshot.encode(tasks, 10, 6);
+        bytes[CompressedSnapshot.HEADER_SIZE + (bytes.length - CompressedSnapshot.HEADER_SIZE) / 2] ^= 0x55;
+        Files.write(file.toPath(), bytes);
+
+        try (CompressedSnapshot snapshot = CompressedSnapshot.open(file)) {
+            assertEquals(tasks.subList(0, 10), snapshot.readBlock(0));
+            assertThrows(ManagerSaveException.class, () -> snapshot.readBlock(1));
+        }
+        assertEquals(tasks.subList(0, 10), new ParallelTaskLoader().load(file));
+    }
+
+    @Test
+    void convertTest() throws IOException {
+        File csv = File.createTempFile("compressed", ".csv");
+        File compressed = File.createTempFile("compressed", ".kbz");
+        TaskCsvParserBenchmark.write(csv, 2_000);
+
+        SnapshotConverter.convert(csv, compressed, SnapshotFormat.COMPRESSED);
+
+        assertTrue(compressed.length() < csv.length() / 3);
+        assertEquals(new ParallelTaskLoader().load(csv), new ParallelTaskLoader().load(compressed));
+    }
+}
@@ -0,0 +1,36 @@
+package service.storage;
+
+import service.managers.FileBackedTaskManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelTaskLoaderBenchmark {
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File file = File.createTempFile("loaderBenchmark", ".csv");
+        file.deleteOnExit();
+        TaskCsvParserBenchmark.write(file, rows);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (int threads = 1; threads <= cores; threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                long start = System.nanoTime();
+                int loaded = new ParallelTaskLoader(pool).load(file).size();
+                report(threads + " потоков", loaded, System.nanoTime() - start);
+                pool.shutdown();
+            }
+            long start = System.nanoTime();
+            FileBackedTaskManager.loadFromFile(file);
+            report("loadFromFile", rows, System.nanoTime() - start);
+        }
+    }
+
+    private static void report(String name, int rows, long nanos) {
+        System.out.printf("%-14s %,12.0f строк/с (%d мс)%n", name, rows / (nanos / 1e9), nanos / 1_000_000);
+    }
+}
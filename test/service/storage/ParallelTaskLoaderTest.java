@@ -0,0 +1,101 @@
+package service.storage;
+
+import model.tasks.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelTaskLoaderTest {
+
+    @Test
+    void chunkedCsvTest() throws IOException {
+        File file = File.createTempFile("parallel", ".csv");
+        TaskCsvParserBenchmark.write(file, 1_000);
+        List<Task> expected = parseSequentially(file);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelTaskLoader loader = new ParallelTaskLoader(pool);
+            loader.setMinChunk(64, 4);
+            List<Task> loaded = loader.load(file);
+
+            assertEquals(1_000, loaded.size());
+            assertEquals(expected, loaded);
+            for (int i = 0; i < loaded.size(); i++) {
+                assertEquals(expected.get(i).getStartTime(), loaded.get(i).getStartTime());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void windowsLineEndingsTest() throws IOException {
+        File file = File.createTempFile("parallel", ".csv");
+        Files.writeString(file.toPath(), TaskCsvParser.HEADER + "\r\n1,TASK,задача 1,NEW,описание\r\n\r\n"
+                + "2,EPIC,Эпик 2,NEW\r\n3,SUBTASK,Под задача 3,DONE,описание,2", StandardCharsets.UTF_8);
+
+        ParallelTaskLoader loader = new ParallelTaskLoader();
+        loader.setMinChunk(8, 1);
+        List<Task> loaded = loader.load(file);
+
+        assertEquals(List.of(1, 2, 3), loaded.stream().map(Task::getId).toList());
+        assertEquals("описание", loaded.get(0).getDescription());
+    }
+
+    @Test
+    void damagedChunkTest() throws IOException {
+        File file = File.createTempFile("parallel", ".csv");
+        StringBuilder text = new StringBuilder(TaskCsvParser.HEADER + "\n1,TASK,задача 1,NEW,описание\nсломанная строка\n");
+        for (int id = 2; id <= 200; id++) {
+            text.append(id).append(",TASK,задача ").append(id).append(",NEW,описание\n");
+        }
+        Files.writeString(file.toPath(), text, StandardCharsets.UTF_8);
+
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            ParallelTaskLoader loader = new ParallelTaskLoader(pool);
+            loader.setMinChunk(64, 1);
+            List<Task> loaded = loader.load(file);
+
+            assertEquals(List.of(1), loaded.stream().map(Task::getId).toList(),
+                    "Загрузка должна остановиться на повреждённой строке.");
+            assertEquals(0, pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount(),
+                    "Части после повреждённой не должны читать файл после его закрытия.");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void chunkedBinaryTest() throws IOException {
+        File csv = File.createTempFile("parallel", ".csv");
+        File binary = File.createTempFile("parallel", ".bin");
+        TaskCsvParserBenchmark.write(csv, 500);
+        List<Task> expected = parseSequentially(csv);
+        BinarySnapshot.write(binary, expected, false);
+
+        ParallelTaskLoader loader = new ParallelTaskLoader(ForkJoinPool.commonPool());
+        loader.setMinChunk(64, 7);
+        assertEquals(expected, loader.load(binary));
+    }
+
+    private List<Task> parseSequentially(File file) throws IOException {
+        TaskCsvParser parser = new TaskCsvParser();
+        List<Task> tasks = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.equals(TaskCsvParser.HEADER)) {
+                tasks.add(parser.parse(line));
+            }
+        }
+        return tasks;
+    }
+}
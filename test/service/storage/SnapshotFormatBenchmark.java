@@ -0,0 +1,59 @@
+package service.storage;
+
+import model.enums.SnapshotFormat;
+
+import java.io.File;
+import java.io.IOException;
+
+public class SnapshotFormatBenchmark {
+    private static final int ROUNDS = 3;
+    private static final int LOOKUPS = 1_000;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File csv = File.createTempFile("formatBenchmark", ".csv");
+        csv.deleteOnExit();
+        TaskCsvParserBenchmark.write(csv, rows);
+
+        File[] files = new File[SnapshotFormat.values().length];
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            File file = File.createTempFile("formatBenchmark", "." + format.name().toLowerCase());
+            file.deleteOnExit();
+            SnapshotConverter.convert(csv, file, format);
+            files[format.ordinal()] = file;
+            System.out.printf("%-10s %,14d байт, %5.2f от CSV%n", format, file.length(),
+                    (double) file.length() / csv.length());
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (SnapshotFormat format : SnapshotFormat.values()) {
+                long start = System.nanoTime();
+                int loaded = new ParallelTaskLoader().load(files[format.ordinal()]).size();
+                long load = System.nanoTime() - start;
+                System.out.printf("%-10s загрузка %,12.0f строк/с (%d мс)%s%n", format, loaded / (load / 1e9),
+                        load / 1_000_000, format == SnapshotFormat.CSV ? "" : lookups(format, files, rows));
+            }
+        }
+    }
+
+    private static String lookups(SnapshotFormat format, File[] files, int rows) {
+        long start = System.nanoTime();
+        long checksum = 0;
+        File file = files[format.ordinal()];
+        if (format == SnapshotFormat.BINARY) {
+            try (BinarySnapshot snapshot = BinarySnapshot.open(file)) {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    checksum += snapshot.find(1 + (int) ((long) i * 7919 % rows)).getId();
+                }
+            }
+        } else {
+            try (CompressedSnapshot snapshot = CompressedSnapshot.open(file)) {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    checksum += snapshot.find(1 + (int) ((long) i * 7919 % rows)).getId();
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        return String.format(", поиск одной задачи %.1f мкс%s", nanos / 1e3 / LOOKUPS, checksum == 42 ? " " : "");
+    }
+}
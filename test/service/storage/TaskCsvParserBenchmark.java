@@ -0,0 +1,111 @@
+package service.storage;
+
+import model.enums.Status;
+import model.enums.Type;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import service.managers.FileBackedTaskManager;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class TaskCsvParserBenchmark {
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File file = File.createTempFile("parserBenchmark", ".csv");
+        file.deleteOnExit();
+        write(file, rows);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            report("legacy split", rows, parseLegacy(file));
+            report("single pass", rows, parseSinglePass(file));
+            long start = System.nanoTime();
+            FileBackedTaskManager.loadFromFile(file);
+            report("loadFromFile", rows, System.nanoTime() - start);
+        }
+    }
+
+    static void write(File file, int rows) throws IOException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
+            writer.write("id,type,name,status,description,epic,startTime,duration\n");
+            for (int id = 1; id <= rows; id++) {
+                if (id % 100 == 1) {
+                    writer.write(id + ",EPIC,Эпик " + id + ",NEW\n");
+                } else if (id % 2 == 0) {
+                    writer.write(id + ",SUBTASK,Подзадача " + id + ",IN_PROGRESS,Описание подзадачи " + id + ","
+                            + ((id - 1) / 100 * 100 + 1) + "," + start.plusMinutes(id * 30L) + ",PT15M\n");
+                } else {
+                    writer.write(id + ",TASK,Задача " + id + ",DONE,Описание задачи " + id + ","
+                            + start.plusMinutes(id * 30L) + ",PT1H15M\n");
+                }
+            }
+        }
+    }
+
+    private static long parseLegacy(File file) throws IOException {
+        long start = System.nanoTime();
+        long checksum = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            br.readLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                Task task = legacyFromString(line);
+                checksum += legacyFromString(line).getId() + task.getId();
+            }
+        }
+        return consume(checksum, start);
+    }
+
+    private static long parseSinglePass(File file) throws IOException {
+        TaskCsvParser parser = new TaskCsvParser();
+        long start = System.nanoTime();
+        long checksum = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8), 1 << 16)) {
+            br.readLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                checksum += parser.parse(line).getId();
+            }
+        }
+        return consume(checksum, start);
+    }
+
+    private static long consume(long checksum, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+
+    private static void report(String name, int rows, long nanos) {
+        System.out.printf("%-14s %,12.0f строк/с (%d мс)%n", name, rows / (nanos / 1e9), nanos / 1_000_000);
+    }
+
+    private static Task legacyFromString(String value) {
+        String[] taskSplit = value.split(",");
+        if (Type.TASK == Type.valueOf(taskSplit[1])) {
+            if (taskSplit.length > 6) {
+                return new Task(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]), taskSplit[4],
+                        LocalDateTime.parse(taskSplit[5]), Duration.parse(taskSplit[6]));
+            }
+            return new Task(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]), taskSplit[4]);
+        }
+        if (Type.EPIC == Type.valueOf(taskSplit[1])) {
+            return new Epic(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]));
+        }
+        if (taskSplit.length > 6) {
+            return new SubTask(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]),
+                    taskSplit[4], Integer.parseInt(taskSplit[5]), LocalDateTime.parse(taskSplit[6]),
+                    Duration.parse(taskSplit[7]));
+        }
+        return new SubTask(Integer.parseInt(taskSplit[0]), taskSplit[2], Status.valueOf(taskSplit[3]),
+                taskSplit[4], Integer.parseInt(taskSplit[5]));
+    }
+}
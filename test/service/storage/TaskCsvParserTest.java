@@ -0,0 +1,61 @@
+package service.storage;
+
+import exception.ManagerSaveException;
+import model.enums.Status;
+import model.tasks.Epic;
+import model.tasks.SubTask;
+import model.tasks.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCsvParserTest {
+    private final TaskCsvParser parser = new TaskCsvParser();
+
+    @Test
+    void parseTaskTest() {
+        Task task = parser.parse("4,TASK,задача 1,NEW,описание задачи 1,2024-05-25T10:00,PT30M");
+
+        assertEquals(new Task(4, "задача 1", Status.NEW, "описание задачи 1"), task);
+        assertEquals(LocalDateTime.of(2024, 5, 25, 10, 0), task.getStartTime());
+        assertEquals(Duration.ofMinutes(30), task.getDuration());
+        assertNull(parser.parse("5,TASK,задача 2,DONE,описание").getStartTime());
+    }
+
+    @Test
+    void parseEpicTest() {
+        assertEquals(new Epic(1, "Эпик 2222 (ИД &)", Status.IN_PROGRESS),
+                parser.parse("1,EPIC,Эпик 2222 (ИД &),IN_PROGRESS"));
+        assertEquals(new Epic(1, "Эпик", Status.DONE), parser.parse("1,EPIC,Эпик,DONE,2024-01-05T01:30,PT30M"));
+    }
+
+    @Test
+    void parseSubTaskTest() {
+        SubTask subTask = (SubTask) parser.parse("2,SUBTASK,суб2,IN_PROGRESS,опис.суб2,1,2024-01-05T01:30:15,PT1H30M5S");
+
+        assertEquals(1, subTask.getIdEpic());
+        assertEquals(LocalDateTime.of(2024, 1, 5, 1, 30, 15), subTask.getStartTime());
+        assertEquals(Duration.ofHours(1).plusMinutes(30).plusSeconds(5), subTask.getDuration());
+        assertEquals(new SubTask(3, "подзадача 11", Status.NEW, "описание 11", 1),
+                parser.parse("3,SUBTASK,подзадача 11,NEW,описание 11,1"));
+    }
+
+    @Test
+    void parseFallbackTest() {
+        Task task = parser.parse("7,TASK,задача,NEW,описание,2024-05-25T10:00:00.5,PT0.5S");
+
+        assertEquals(LocalDateTime.parse("2024-05-25T10:00:00.5"), task.getStartTime());
+        assertEquals(Duration.ofMillis(500), task.getDuration());
+    }
+
+    @Test
+    void malformedLineTest() {
+        assertThrows(ManagerSaveException.class, () -> parser.parse("x,TASK,задача,NEW,описание"));
+        assertThrows(ManagerSaveException.class, () -> parser.parse("1,NOTE,задача,NEW,описание"));
+        assertThrows(ManagerSaveException.class, () -> parser.parse("1,TASK,задача"));
+        assertThrows(ManagerSaveException.class, () -> parser.parse("1,SUBTASK,задача,NEW,описание"));
+    }
+}
@@ -0,0 +1,109 @@
+package service.storage;
+
+import model.enums.Durability;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJournalTest {
+
+    @Test
+    void groupCommitTest() throws IOException, InterruptedException {
+        File file = File.createTempFile("groupCommit", ".journal");
+        TaskJournal journal = new TaskJournal(file, Durability.BATCHED);
+        journal.setCommitPolicy(5, 16);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int thread = i;
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    journal.append(List.of("PUT," + thread + "," + j));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400, journal.getRecords(), "Не все записи зафиксированы.");
+        journal.close();
+        assertEquals(400, new TaskJournal(file).read().size(), "Не все записи попали в файл.");
+    }
+
+    @Test
+    void sealTest() throws IOException {
+        File file = File.createTempFile("seal", ".journal");
+        File sealed = new File(file.getPath() + ".sealed");
+        TaskJournal journal = new TaskJournal(file, Durability.SYNC);
+
+        journal.append(List.of("PUT,1", "PUT,2"));
+        journal.seal(sealed);
+        journal.append(List.of("REMOVE,1"));
+        journal.close();
+
+        assertEquals(List.of("PUT,1", "PUT,2"), new TaskJournal(sealed).read());
+        assertEquals(List.of("REMOVE,1"), new TaskJournal(file).read());
+        assertTrue(sealed.delete());
+    }
+
+    @Test
+    void tornTailTest() throws IOException {
+        File file = File.createTempFile("torn", ".journal");
+        TaskJournal journal = new TaskJournal(file, Durability.SYNC);
+        journal.append(List.of("PUT,1", "PUT,2", "REMOVE,1"));
+        journal.close();
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int secondRecord = new String(bytes, StandardCharsets.UTF_8).indexOf("PUT,2");
+        bytes[secondRecord + 4] = '3';
+        Files.write(file.toPath(), bytes);
+        Files.writeString(file.toPath(), "0000", StandardOpenOption.APPEND);
+
+        TaskJournal recovered = new TaskJournal(file, Durability.SYNC);
+        assertEquals(List.of("PUT,1"), recovered.read(), "Чтение должно остановиться на первой повреждённой записи.");
+        assertEquals(secondRecord - 9, file.length(), "Повреждённый хвост не отрезан.");
+
+        recovered.append(List.of("PUT,4"));
+        recovered.close();
+        assertEquals(List.of("PUT,1", "PUT,4"), new TaskJournal(file).read());
+    }
+
+    @Test
+    void tornGroupTest() throws IOException {
+        File file = File.createTempFile("tornGroup", ".journal");
+        TaskJournal journal = new TaskJournal(file, Durability.SYNC);
+        journal.append(List.of("PUT,1"));
+        long committed = file.length();
+        journal.write(List.of("PUT,2", "PUT,3"), true);
+        journal.close();
+        assertEquals(List.of("PUT,1", "PUT,2", "PUT,3"), new TaskJournal(file).read());
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int commit = new String(bytes, StandardCharsets.UTF_8).indexOf("COMMIT");
+        Files.write(file.toPath(), Arrays.copyOf(bytes, commit - 9));
+
+        assertEquals(List.of("PUT,1"), new TaskJournal(file).read(), "Группа без COMMIT должна отбрасываться целиком.");
+        assertEquals(committed, file.length(), "Недописанная группа не отрезана.");
+    }
+
+    @Test
+    void legacyRecordsTest() throws IOException {
+        File file = File.createTempFile("legacy", ".journal");
+        Files.writeString(file.toPath(), "PUT,1,TASK,задача,NEW,описание\nREMOVE,1\nCLEAR,EPIC\nPUT,2,TA",
+                StandardCharsets.UTF_8);
+
+        assertEquals(List.of("PUT,1,TASK,задача,NEW,описание", "REMOVE,1", "CLEAR,EPIC"),
+                new TaskJournal(file).read());
+    }
+}
@@ -0,0 +1,46 @@
+package service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindPersisterTest {
+
+    @Test
+    void coalesceTest() throws InterruptedException {
+        AtomicInteger saves = new AtomicInteger();
+        WriteBehindPersister persister = new WriteBehindPersister(saves::incrementAndGet);
+        persister.setInterval(20);
+
+        for (int i = 0; i < 10_000; i++) {
+            persister.markDirty();
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (persister.isDirty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertFalse(persister.isDirty(), "Фоновый поток не сохранил изменения.");
+        assertTrue(saves.get() <= 2, "Изменения не объединены: " + saves.get());
+        persister.close();
+        assertEquals(saves.get(), persister.getSaves());
+    }
+
+    @Test
+    void flushTest() {
+        AtomicInteger saves = new AtomicInteger();
+        WriteBehindPersister persister = new WriteBehindPersister(saves::incrementAndGet);
+        persister.setInterval(60_000);
+
+        persister.flush();
+        assertEquals(0, saves.get(), "Без изменений сохранять нечего.");
+        persister.markDirty();
+        persister.flush();
+        assertEquals(1, saves.get());
+        persister.markDirty();
+        persister.close();
+        assertEquals(2, saves.get(), "close() должен сохранить последние изменения.");
+    }
+}
@@ -0,0 +1,54 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+
+    @Test
+    void addRemoveTest() {
+        IntHashSet set = new IntHashSet(5, 0, -3);
+        assertTrue(set.contains(0), "Ноль должен храниться наравне с другими значениями.");
+        assertFalse(set.add(5));
+        assertEquals(3, set.size());
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertFalse(set.contains(0));
+        assertTrue(set.remove(-3));
+        assertArrayEquals(new int[]{5}, set.toArray());
+    }
+
+    @Test
+    void randomOperationsTest() {
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(17);
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(4_000) * 32 - 50_000;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        int[] values = set.toArray();
+        Arrays.sort(values);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), values);
+
+        int[] sum = new int[1];
+        set.forEach(value -> sum[0] += value);
+        assertEquals(expected.stream().mapToInt(Integer::intValue).sum(), sum[0]);
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.toArray().length);
+    }
+}
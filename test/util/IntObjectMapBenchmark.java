@@ -0,0 +1,76 @@
+package util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class IntObjectMapBenchmark {
+    private static final int[] SIZES = {100_000, 1_000_000, 4_000_000};
+    private static final int LOOKUPS = 10_000_000;
+    private static final Object VALUE = new Object();
+
+    public static void main(String[] args) {
+        for (int size : SIZES) {
+            run("HashMap", size, new HashMap<>());
+            run("IntObjectMap", size, new IntObjectMap<>());
+        }
+    }
+
+    private static void run(String name, int size, Map<Integer, Object> map) {
+        long before = usedMemory();
+        fill(map, size);
+        long bytes = usedMemory() - before;
+
+        int[] keys = new int[LOOKUPS];
+        Random random = new Random(7);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 1 + random.nextInt(size);
+        }
+        lookup(map, keys);
+        long begin = System.nanoTime();
+        int found = lookup(map, keys);
+        long nanos = System.nanoTime() - begin;
+
+        System.out.printf("%-13s %,10d записей: %6.1f байт на запись, %6.1f нс на поиск (%d)%n", name, size,
+                (double) bytes / size, (double) nanos / LOOKUPS, found);
+        map.clear();
+    }
+
+    private static void fill(Map<Integer, Object> map, int size) {
+        if (map instanceof IntObjectMap<Object> primitive) {
+            for (int id = 1; id <= size; id++) {
+                primitive.put(id, VALUE);
+            }
+        } else {
+            for (int id = 1; id <= size; id++) {
+                map.put(id, VALUE);
+            }
+        }
+    }
+
+    private static int lookup(Map<Integer, Object> map, int[] keys) {
+        int found = 0;
+        if (map instanceof IntObjectMap<Object> primitive) {
+            for (int key : keys) {
+                if (primitive.get(key) != null) {
+                    found++;
+                }
+            }
+        } else {
+            for (int key : keys) {
+                if (map.get(key) != null) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,73 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    void putGetRemoveTest() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertNull(map.put(1, "один"));
+        assertEquals("один", map.put(1, "первый"));
+        map.put(-5, "минус пять");
+        map.put(0, "ноль");
+
+        assertEquals(3, map.size());
+        assertEquals("первый", map.get(1));
+        assertEquals("ноль", map.get(0));
+        assertTrue(map.containsKey(-5));
+        assertFalse(map.containsKey(2));
+        assertNull(map.get(Integer.valueOf(2)));
+
+        assertEquals("минус пять", map.remove(-5));
+        assertNull(map.remove(-5));
+        assertEquals(2, map.size());
+        assertThrows(NullPointerException.class, () -> map.put(3, null));
+    }
+
+    @Test
+    void randomOperationsTest() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000) * 64;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, "значение " + i), map.put(key, "значение " + i));
+            }
+        }
+        assertEquals(expected, map, "Содержимое расходится с HashMap.");
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        for (int key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void iterationOrderTest() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int i = 1; i <= 100; i++) {
+            map.put(i, String.valueOf(i));
+        }
+        List<String> values = new ArrayList<>(map.values());
+        assertEquals(100, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(String.valueOf(i + 1), values.get(i), "Последовательные id должны обходиться по возрастанию.");
+        }
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertTrue(map.values().isEmpty());
+    }
+}
@@ -0,0 +1,48 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntSetTest {
+
+    @Test
+    void versionsTest() {
+        PersistentIntSet first = PersistentIntSet.of(5, 0, -3);
+        PersistentIntSet second = first.remove(0).add(7);
+
+        assertArrayEquals(new int[]{-3, 0, 5}, first.toArray(), "Изменение не должно затрагивать прежнюю версию.");
+        assertArrayEquals(new int[]{-3, 5, 7}, second.toArray());
+        assertSame(second, second.add(5), "Повторное добавление должно возвращать то же множество.");
+        assertSame(second, second.remove(10), "Удаление отсутствующего значения должно возвращать то же множество.");
+        assertTrue(PersistentIntSet.empty().isEmpty());
+        assertEquals(PersistentIntSet.of(7, 5, -3), second);
+    }
+
+    @Test
+    void randomOperationsTest() {
+        PersistentIntSet set = PersistentIntSet.empty();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(31);
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(1_000) - 500;
+            if (random.nextInt(3) > 0) {
+                set = set.add(value);
+                expected.add(value);
+            } else {
+                set = set.remove(value);
+                expected.remove(value);
+            }
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertEquals(expected.size(), set.size());
+        List<Integer> visited = new ArrayList<>();
+        set.forEach(visited::add);
+        assertEquals(new ArrayList<>(expected), visited, "Обход должен идти по возрастанию.");
+    }
+}
@@ -0,0 +1,84 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSortedMapTest {
+
+    @Test
+    void versionsTest() {
+        PersistentSortedMap<Integer, String> empty = PersistentSortedMap.empty();
+        PersistentSortedMap<Integer, String> first = empty.put(2, "два").put(1, "один");
+        PersistentSortedMap<Integer, String> second = first.put(3, "три").remove(1);
+
+        assertTrue(empty.isEmpty(), "Изменение не должно затрагивать прежнюю версию.");
+        assertEquals(List.of("один", "два"), first.values());
+        assertEquals(List.of("два", "три"), second.values());
+        assertSame(second, second.remove(10), "Удаление отсутствующего ключа должно возвращать ту же версию.");
+        assertThrows(UnsupportedOperationException.class, () -> second.values().add("четыре"));
+    }
+
+    @Test
+    void randomOperationsTest() {
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(23);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) > 0) {
+                map = map.put(key, i);
+                expected.put(key, i);
+            } else {
+                map = map.remove(key);
+                expected.remove(key);
+            }
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), map.values());
+        for (int i = 0; i < expected.size(); i += 97) {
+            assertEquals(new ArrayList<>(expected.values()).get(i), map.values().get(i));
+        }
+        for (int key = -1; key <= 2_001; key += 7) {
+            Map.Entry<Integer, Integer> lower = map.lowerEntry(key);
+            Map.Entry<Integer, Integer> expectedLower = expected.lowerEntry(key);
+            assertEquals(expectedLower == null ? null : expectedLower.getKey(), lower == null ? null : lower.getKey());
+        }
+        for (int key = -1; key <= 2_001; key += 251) {
+            List<Integer> tail = new ArrayList<>();
+            map.tailEntries(key, false).forEach(entry -> tail.add(entry.getKey()));
+            assertEquals(new ArrayList<>(expected.tailMap(key, false).keySet()), tail);
+        }
+    }
+
+    @Test
+    void summaryTest() {
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.summarized(
+                (Long left, Integer key, Integer value, Long right) ->
+                        (left == null ? 0 : left) + value + (right == null ? 0 : right));
+        PersistentSortedMap<Integer, Integer> empty = map;
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(29);
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) > 0) {
+                map = map.put(key, i);
+                expected.put(key, i);
+            } else {
+                map = map.remove(key);
+                expected.remove(key);
+            }
+            long sum = expected.values().stream().mapToLong(Integer::longValue).sum();
+            assertEquals(expected.isEmpty() ? null : sum, map.root() == null ? null : map.root().summary(),
+                    "Сводка корня должна пересчитываться при каждом изменении.");
+        }
+        assertNull(empty.root());
+    }
+}
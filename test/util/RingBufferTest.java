@@ -0,0 +1,60 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void drainTest() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        assertTrue(ring.isEmpty());
+        for (int i = 0; i < 4; i++) {
+            ring.put(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, ring.drain(drained::add, 3));
+        ring.put(4);
+        ring.put(5);
+        assertEquals(3, ring.drain(drained::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+        assertTrue(ring.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(6));
+    }
+
+    @Test
+    void producersTest() throws InterruptedException {
+        RingBuffer<Integer> ring = new RingBuffer<>(16);
+        int producers = 3;
+        int elements = 50_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < elements; i++) {
+                    ring.put(producer * elements + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        int[] last = {-1, -1, -1};
+        int[] received = new int[1];
+        while (received[0] < producers * elements) {
+            ring.drain(value -> {
+                int producer = value / elements;
+                assertTrue(value > last[producer], "Нарушен порядок элементов одного производителя.");
+                last[producer] = value;
+                received[0]++;
+            }, 16);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(ring.isEmpty());
+    }
+}